@@ -12,10 +12,20 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.StateChangeListener;
@@ -31,11 +41,52 @@ import io.github.hapjava.characteristics.HomekitCharacteristicChangeCallback;
  * HomeKit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * With a notification interval, state changes are not passed on directly. The changes of a characteristic within
+ * an interval are coalesced into one notification, and the notifications of all characteristics that changed are
+ * released at the end of the interval. Each of them is still sent to the clients as its own event, they are not
+ * batched into one message. HomeKit clients read the current item state when they are notified, so they get the
+ * latest value.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitAccessoryUpdater {
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+
+    /* characteristics with pending notifications, guarded by itself */
+    private final Map<ItemKey, HomekitCharacteristicChangeCallback> pendingNotifications = new LinkedHashMap<>();
+    private @Nullable ScheduledFuture<?> notificationJob;
+    private volatile int notificationInterval;
+
+    private final AtomicLong sentNotifications = new AtomicLong();
+    private final AtomicLong suppressedNotifications = new AtomicLong();
+
+    /**
+     * @param notificationInterval milliseconds to collect state changes before clients are notified, 0 to notify
+     *            them for every change
+     */
+    public void setNotificationInterval(int notificationInterval) {
+        this.notificationInterval = Math.max(0, notificationInterval);
+        if (notificationInterval <= 0) {
+            sendNotifications();
+        }
+    }
+
+    /**
+     * @return number of notifications sent to HomeKit clients
+     */
+    public long getSentNotifications() {
+        return sentNotifications.get();
+    }
+
+    /**
+     * @return number of state changes that were coalesced into a pending notification
+     */
+    public long getSuppressedNotifications() {
+        return suppressedNotifications.get();
+    }
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
@@ -57,7 +108,7 @@ public class HomekitAccessoryUpdater {
                 unsubscribe(item, key);
             }
             logger.trace("Adding subscription for {} / {}", item, key);
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = (changedItem, oldState, newState) -> notifyChanged(itemKey, callback);
             item.addStateChangeListener(subscription);
             return subscription;
         });
@@ -71,11 +122,53 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
+        ItemKey itemKey = new ItemKey(item, key);
+        subscriptionsByName.computeIfPresent(itemKey, (k, v) -> {
             logger.trace("Removing existing subscription for {} / {}", item, key);
             item.removeStateChangeListener(v);
             return null;
         });
+        synchronized (pendingNotifications) {
+            pendingNotifications.remove(itemKey);
+        }
+    }
+
+    private void notifyChanged(ItemKey itemKey, HomekitCharacteristicChangeCallback callback) {
+        final int interval = notificationInterval;
+        if (interval <= 0) {
+            sentNotifications.incrementAndGet();
+            callback.changed();
+            return;
+        }
+        synchronized (pendingNotifications) {
+            if (pendingNotifications.put(itemKey, callback) != null) {
+                suppressedNotifications.incrementAndGet();
+            }
+            if (notificationJob == null) {
+                notificationJob = scheduler.schedule(this::sendNotifications, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void sendNotifications() {
+        final List<HomekitCharacteristicChangeCallback> callbacks;
+        synchronized (pendingNotifications) {
+            callbacks = new ArrayList<>(pendingNotifications.values());
+            pendingNotifications.clear();
+            notificationJob = null;
+        }
+        for (HomekitCharacteristicChangeCallback callback : callbacks) {
+            try {
+                callback.changed();
+            } catch (RuntimeException e) {
+                logger.debug("Notifying HomeKit clients failed: {}", e.getMessage());
+            }
+        }
+        if (!callbacks.isEmpty()) {
+            sentNotifications.addAndGet(callbacks.size());
+            logger.trace("Sent {} HomeKit notifications, {} sent and {} suppressed in total", callbacks.size(),
+                    sentNotifications, suppressedNotifications);
+        }
     }
 
     @FunctionalInterface
@@ -14,16 +14,22 @@ package org.openhab.io.homekit.internal;
 
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.common.registry.RegistryChangeListener;
 import org.openhab.core.items.GroupItem;
@@ -32,6 +38,7 @@ import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.ItemRegistryChangeListener;
 import org.openhab.core.items.Metadata;
+import org.openhab.core.items.MetadataKey;
 import org.openhab.core.items.MetadataRegistry;
 import org.openhab.core.storage.Storage;
 import org.openhab.core.storage.StorageService;
@@ -46,6 +53,10 @@ import io.github.hapjava.server.impl.HomekitRoot;
  * Listens for changes to the item and metadata registry. When changes are detected, check
  * for HomeKit tags and, if present, add the items to the HomekitAccessoryRegistry.
  *
+ * Changed items are compared with the state they had when their accessories were created. Accessories are only
+ * rebuilt, and the configuration revision is only increased, if the item or its HomeKit metadata changed, so that
+ * HomeKit clients keep their cached accessory database otherwise.
+ *
  * @author Andy Lintner - Initial contribution
  */
 @NonNullByDefault
@@ -64,6 +75,12 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     private final Set<String> pendingUpdates = new HashSet<>();
 
+    /* the items the current accessories were created from, guarded by applyLock */
+    private final Map<String, ItemSource> itemSources = new HashMap<>();
+
+    /* serializes applying updates, which runs without holding the listener lock. Taken before the listener lock. */
+    private final Object applyLock = new Object();
+
     private final ScheduledExecutorService scheduler = ThreadPoolManager
             .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
 
@@ -82,6 +99,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         this.itemRegistry = itemRegistry;
         this.settings = settings;
         this.metadataRegistry = metadataRegistry;
+        updater.setNotificationInterval(settings.notificationInterval);
         storage = storageService.getStorage(HomekitAuthInfoImpl.STORAGE_KEY);
         this.applyUpdatesDebouncer = new Debouncer("update-homekit-devices", scheduler, Duration.ofMillis(1000),
                 Clock.systemUTC(), this::applyUpdates);
@@ -118,7 +136,10 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         };
         itemRegistry.addRegistryChangeListener(this);
         metadataRegistry.addRegistryChangeListener(metadataChangeListener);
-        itemRegistry.getItems().forEach(this::createRootAccessories);
+        itemRegistry.getItems().forEach(item -> {
+            createRootAccessories(item).forEach(this::addRootAccessory);
+            itemSources.put(item.getName(), new ItemSource(item));
+        });
         initialiseRevision();
         logger.info("Created {} HomeKit items.", accessoryRegistry.getAllAccessories().size());
     }
@@ -199,16 +220,65 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         storage.put(ACCESSORY_COUNT, "" + lastAccessoryCount);
     }
 
-    private synchronized void applyUpdates() {
-        logger.trace("apply updates");
-        for (final String name : pendingUpdates) {
-            accessoryRegistry.remove(name);
-            logger.trace(" add items {}", name);
-            getItemOptional(name).ifPresent(this::createRootAccessories);
-        }
-        if (!pendingUpdates.isEmpty()) {
-            makeNewConfigurationRevision();
-            pendingUpdates.clear();
+    private void applyUpdates() {
+        synchronized (applyLock) {
+            final Set<String> names;
+            synchronized (this) {
+                if (pendingUpdates.isEmpty()) {
+                    return;
+                }
+                names = new HashSet<>(pendingUpdates);
+                pendingUpdates.clear();
+            }
+            logger.trace("apply updates for {}", names);
+
+            // accessories are created without holding the listener lock, so item events are not blocked meanwhile
+            final Map<String, List<Entry<String, HomekitAccessory>>> rebuilt = new HashMap<>();
+            final Map<String, @Nullable ItemSource> sources = new HashMap<>();
+            final Set<String> rebound = new HashSet<>();
+            for (final String name : names) {
+                final Optional<Item> item = getItemOptional(name);
+                final @Nullable ItemSource source = item.isPresent() ? new ItemSource(item.get()) : null;
+                final @Nullable ItemSource previousSource = itemSources.get(name);
+                if (source != null && previousSource != null && source.fingerprint.equals(previousSource.fingerprint)) {
+                    if (source.hasSameItems(previousSource)) {
+                        logger.trace(" item {} is unchanged", name);
+                        continue;
+                    }
+                    // the accessories have to be bound to the new item instances, but look the same to HomeKit
+                    logger.trace(" rebind items {}", name);
+                    rebound.add(name);
+                } else {
+                    logger.trace(" add items {}", name);
+                }
+                rebuilt.put(name, item.map(this::createRootAccessories).orElse(List.of()));
+                sources.put(name, source);
+            }
+
+            boolean accessoriesChanged = false;
+            synchronized (this) {
+                for (final Entry<String, List<Entry<String, HomekitAccessory>>> entry : rebuilt.entrySet()) {
+                    final String name = entry.getKey();
+                    // any change of the item may show in the cached accessory database, e.g. its label or the
+                    // value range of a characteristic, unless the item neither had nor has an accessory
+                    if (!rebound.contains(name)
+                            && (accessoryRegistry.get(name) != null || !entry.getValue().isEmpty())) {
+                        logger.trace(" accessory {} changed", name);
+                        accessoriesChanged = true;
+                    }
+                    accessoryRegistry.remove(name);
+                    entry.getValue().forEach(this::addRootAccessory);
+                    final @Nullable ItemSource source = sources.get(name);
+                    if (source != null) {
+                        itemSources.put(name, source);
+                    } else {
+                        itemSources.remove(name);
+                    }
+                }
+                if (accessoriesChanged) {
+                    makeNewConfigurationRevision();
+                }
+            }
         }
     }
 
@@ -222,8 +292,13 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         return lastAccessoryCount;
     }
 
-    public synchronized void clearAccessories() {
-        accessoryRegistry.clear();
+    public void clearAccessories() {
+        synchronized (applyLock) {
+            synchronized (this) {
+                accessoryRegistry.clear();
+            }
+            itemSources.clear();
+        }
     }
 
     public synchronized void setBridge(HomekitRoot bridge) {
@@ -237,15 +312,23 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
         this.updater = updater;
+        updater.setNotificationInterval(settings.notificationInterval);
     }
 
     public void updateSettings(HomekitSettings settings) {
         this.settings = settings;
+        updater.setNotificationInterval(settings.notificationInterval);
+        synchronized (applyLock) {
+            // accessories depend on the settings, so the next change of an item rebuilds its accessories
+            itemSources.clear();
+        }
     }
 
     public void stop() {
         this.itemRegistry.removeRegistryChangeListener(this);
         this.metadataRegistry.removeRegistryChangeListener(metadataChangeListener);
+        logger.debug("Sent {} HomeKit notifications, suppressed {}", updater.getSentNotifications(),
+                updater.getSuppressedNotifications());
     }
 
     public Map<String, HomekitAccessory> getAccessories() {
@@ -280,8 +363,10 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
      * Switch light "Light" (gLight) {homekit="Lighting.OnState"}
      *
      * @param item openHAB item
+     * @return the created accessories with the names they are registered by
      */
-    private void createRootAccessories(Item item) {
+    private List<Entry<String, HomekitAccessory>> createRootAccessories(Item item) {
+        final List<Entry<String, HomekitAccessory>> accessories = new ArrayList<>();
         final List<Entry<HomekitAccessoryType, HomekitCharacteristicType>> accessoryTypes = HomekitAccessoryFactory
                 .getAccessoryTypes(item, metadataRegistry);
         final List<GroupItem> groups = HomekitAccessoryFactory.getAccessoryGroups(item, itemRegistry, metadataRegistry);
@@ -290,16 +375,84 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
             logger.trace("Item {} is a HomeKit accessory of types {}", item.getName(), accessoryTypes);
             final HomekitOHItemProxy itemProxy = new HomekitOHItemProxy(item);
             accessoryTypes.forEach(rootAccessory -> createRootAccessory(new HomekitTaggedItem(itemProxy,
-                    rootAccessory.getKey(), HomekitAccessoryFactory.getItemConfiguration(item, metadataRegistry))));
+                    rootAccessory.getKey(), HomekitAccessoryFactory.getItemConfiguration(item, metadataRegistry)))
+                            .ifPresent(accessories::add));
         }
+        return accessories;
     }
 
-    private void createRootAccessory(HomekitTaggedItem taggedItem) {
+    private Optional<Entry<String, HomekitAccessory>> createRootAccessory(HomekitTaggedItem taggedItem) {
         try {
-            accessoryRegistry.addRootAccessory(taggedItem.getName(),
-                    HomekitAccessoryFactory.create(taggedItem, metadataRegistry, updater, settings));
+            return Optional.of(Map.entry(taggedItem.getName(),
+                    HomekitAccessoryFactory.create(taggedItem, metadataRegistry, updater, settings)));
         } catch (HomekitException e) {
             logger.warn("Could not add device {}: {}", taggedItem.getItem().getUID(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void addRootAccessory(Entry<String, HomekitAccessory> accessory) {
+        accessoryRegistry.addRootAccessory(accessory.getKey(), accessory.getValue());
+    }
+
+    /**
+     * The item instances the accessories of an item were created from, and their fingerprint.
+     */
+    private class ItemSource {
+        private final String fingerprint;
+        /* the item and, for groups, its members */
+        private final List<Item> items = new ArrayList<>();
+
+        ItemSource(Item item) {
+            fingerprint = getFingerprint(item);
+            items.add(item);
+            if (item instanceof GroupItem) {
+                items.addAll(((GroupItem) item).getMembers());
+            }
+        }
+
+        /**
+         * Accessories are bound to the item instances they were created from, so they have to be created again for
+         * new instances, even if these don't differ in anything else.
+         */
+        boolean hasSameItems(ItemSource other) {
+            if (items.size() != other.items.size()) {
+                return false;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) != other.items.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Describes everything accessories are created from: the item itself, its HomeKit metadata and, for groups, the
+     * same of the members.
+     */
+    private String getFingerprint(Item item) {
+        final StringBuilder fingerprint = new StringBuilder();
+        appendFingerprint(fingerprint, item);
+        if (item instanceof GroupItem) {
+            final GroupItem groupItem = (GroupItem) item;
+            final @Nullable Item baseItem = groupItem.getBaseItem();
+            fingerprint.append("|base=").append(baseItem != null ? baseItem.getType() : "");
+            groupItem.getMembers().stream().sorted(Comparator.comparing(Item::getName))
+                    .forEach(member -> appendFingerprint(fingerprint.append("|member="), member));
+        }
+        return fingerprint.toString();
+    }
+
+    private void appendFingerprint(StringBuilder fingerprint, Item item) {
+        fingerprint.append(item.getName()).append(';').append(item.getType()).append(';').append(item.getLabel())
+                .append(';').append(item.getCategory()).append(';').append(new TreeSet<>(item.getGroupNames()));
+        final @Nullable Metadata metadata = metadataRegistry
+                .get(new MetadataKey(HomekitAccessoryFactory.METADATA_KEY, item.getUID()));
+        if (metadata != null) {
+            fingerprint.append(';').append(metadata.getValue()).append(';')
+                    .append(new TreeMap<>(metadata.getConfiguration()));
         }
     }
 }
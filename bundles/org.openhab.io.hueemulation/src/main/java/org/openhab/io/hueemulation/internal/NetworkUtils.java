@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -116,6 +118,31 @@ public class NetworkUtils {
         return Response.status(httpCode).entity(str).build();
     }
 
+    /**
+     * Computes an entity tag for the given json
+     */
+    public static String entityTag(String json) {
+        return Integer.toHexString(json.hashCode()) + "-" + Integer.toHexString(json.length());
+    }
+
+    /**
+     * Creates a json response with the given entity tag, or a "304 Not Modified" response if the client
+     * already got this json.
+     *
+     * @param request The original request, to evaluate the If-None-Match header
+     * @param json The response entity
+     * @param etag The entity tag of the json, see {@link #entityTag(String)}
+     * @return
+     */
+    public static Response jsonWithETag(Request request, String json, String etag) {
+        EntityTag tag = new EntityTag(etag);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(json).tag(tag).build();
+    }
+
     public static Response singleSuccess(Gson gson, String message, String uriPart) {
         List<HueResponse> responses = new ArrayList<>();
         responses.add(new HueResponse(new HueSuccessGeneric(message, uriPart)));
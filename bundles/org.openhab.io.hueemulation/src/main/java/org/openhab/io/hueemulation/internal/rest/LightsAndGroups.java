@@ -27,6 +27,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
@@ -91,6 +92,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
  * </p>
  *
  * <p>
+ * The json of all lights is cached in a {@link LightsSnapshot} and served with an entity tag, so that clients
+ * polling the lights don't cause all lights to be serialized again and again.
  * </p>
  *
  * @author David Graeff - Initial contribution
@@ -118,12 +121,15 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
     protected volatile @Nullable EventPublisher eventPublisher;
 
+    private final LightsSnapshot lightsSnapshot = new LightsSnapshot();
+
     /**
      * Registers to the {@link ItemRegistry} and enumerates currently existing items.
      */
     @Activate
     protected void activate() {
         cs.ds.resetGroupsAndLights();
+        lightsSnapshot.clear();
 
         itemRegistry.removeRegistryChangeListener(this);
         itemRegistry.addRegistryChangeListener(this);
@@ -139,6 +145,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Deactivate
     protected void deactivate() {
         itemRegistry.removeRegistryChangeListener(this);
+        logger.debug("Lights json cache: {}", lightsSnapshot);
     }
 
     @Override
@@ -182,6 +189,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         } else {
             HueLightEntry device = new HueLightEntry(element, cs.getHueUniqueId(hueID), deviceType);
             device.item = element;
+            lightsSnapshot.invalidate(hueID);
             cs.ds.lights.put(hueID, device);
             updateGroup0();
         }
@@ -201,6 +209,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         logger.debug("Remove item {}", hueID);
         cs.ds.lights.remove(hueID);
         cs.ds.groups.remove(hueID);
+        lightsSnapshot.invalidate(hueID);
         updateGroup0();
     }
 
@@ -242,17 +251,19 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         }
 
         hueDevice.updateItem(element);
+        lightsSnapshot.invalidate(hueID);
     }
 
     @GET
     @Path("{username}/lights")
     @Operation(summary = "Return all lights", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getAllLightsApi(@Context UriInfo uri,
+    public Response getAllLightsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @Parameter(description = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights)).build();
+        LightsSnapshot.Snapshot snapshot = lightsSnapshot.getSnapshot(cs.gson, cs.ds.lights);
+        return NetworkUtils.jsonWithETag(request, snapshot.json, snapshot.etag);
     }
 
     @GET
@@ -288,7 +299,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights.get(id))).build();
+        return Response.ok(lightsSnapshot.getJson(cs.gson, id, cs.ds.lights.get(id))).build();
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -438,12 +449,14 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @GET
     @Path("{username}/groups")
     @Operation(summary = "Return all groups", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getAllGroupsApi(@Context UriInfo uri,
+    public Response getAllGroupsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @Parameter(description = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.groups)).build();
+        // few groups with member lists that change without registry events, not worth caching
+        String json = cs.gson.toJson(cs.ds.groups);
+        return NetworkUtils.jsonWithETag(request, json, NetworkUtils.entityTag(json));
     }
 
     @GET
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+import org.openhab.io.hueemulation.internal.dto.changerequest.HueStateChange;
+
+import com.google.gson.Gson;
+
+/**
+ * Serialized json of the exposed lights.
+ *
+ * The json of every {@link HueLightEntry} is kept together with the item, state, label and last command it was
+ * rendered from. A light is only serialized again if one of those changed, and the json of all lights is only
+ * assembled again if any light changed, was added or was removed. Because the cached json is validated against the
+ * light entries on every request, changes that bypass the item registry (like state updates) are never missed.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LightsSnapshot {
+    private static class Fragment {
+        private final GenericItem item;
+        private final State state;
+        private final @Nullable String label;
+        private final @Nullable Command lastCommand;
+        private final @Nullable HueStateChange lastHueChange;
+        private final String json;
+
+        Fragment(HueLightEntry entry, Gson gson) {
+            // record the inputs before serializing, a concurrent change then causes another serialization
+            item = entry.item;
+            state = item.getState();
+            label = item.getLabel();
+            lastCommand = entry.lastCommand;
+            lastHueChange = entry.lastHueChange;
+            json = gson.toJson(entry);
+        }
+
+        boolean isValidFor(HueLightEntry entry) {
+            return item == entry.item && state == entry.item.getState()
+                    && Objects.equals(label, entry.item.getLabel()) && lastCommand == entry.lastCommand
+                    && lastHueChange == entry.lastHueChange;
+        }
+    }
+
+    /**
+     * The json of all lights and its entity tag.
+     */
+    public static class Snapshot {
+        public final String json;
+        public final String etag;
+
+        Snapshot(String json) {
+            this.json = json;
+            this.etag = NetworkUtils.entityTag(json);
+        }
+    }
+
+    private final Map<String, Fragment> fragments = new HashMap<>();
+    private @Nullable Snapshot snapshot;
+
+    private long serializedLights;
+    private long snapshotRequests;
+    private long snapshotRebuilds;
+
+    /**
+     * @return the json of all given lights
+     */
+    public synchronized Snapshot getSnapshot(Gson gson, Map<String, HueLightEntry> lights) {
+        snapshotRequests++;
+        Snapshot current = snapshot;
+        boolean changed = fragments.size() != lights.size();
+        for (Map.Entry<String, HueLightEntry> entry : lights.entrySet()) {
+            Fragment fragment = fragments.get(entry.getKey());
+            if (fragment == null || !fragment.isValidFor(entry.getValue())) {
+                getFragment(gson, entry.getKey(), entry.getValue());
+                changed = true;
+            }
+        }
+        if (current != null && !changed) {
+            return current;
+        }
+
+        fragments.keySet().retainAll(lights.keySet());
+        // the same output as serializing the map of lights at once
+        StringBuilder builder = new StringBuilder("{");
+        for (String id : lights.keySet()) {
+            Fragment fragment = fragments.get(id);
+            if (fragment == null) {
+                continue;
+            }
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            builder.append(gson.toJson(id)).append(':').append(fragment.json);
+        }
+        current = new Snapshot(builder.append('}').toString());
+        snapshot = current;
+        snapshotRebuilds++;
+        return current;
+    }
+
+    /**
+     * @return the json of a single light, "null" if there is no such light
+     */
+    public synchronized String getJson(Gson gson, String id, @Nullable HueLightEntry entry) {
+        if (entry == null) {
+            return "null";
+        }
+        return getFragment(gson, id, entry).json;
+    }
+
+    /**
+     * Drops the cached json of a light, for example because its item was replaced or removed.
+     */
+    public synchronized void invalidate(String id) {
+        if (fragments.remove(id) != null) {
+            snapshot = null;
+        }
+    }
+
+    public synchronized void clear() {
+        fragments.clear();
+        snapshot = null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LightsSnapshot{lights=" + fragments.size() + ", serializedLights=" + serializedLights
+                + ", snapshotRequests=" + snapshotRequests + ", snapshotRebuilds=" + snapshotRebuilds + '}';
+    }
+
+    private Fragment getFragment(Gson gson, String id, HueLightEntry entry) {
+        Fragment fragment = fragments.get(id);
+        if (fragment == null || !fragment.isValidFor(entry)) {
+            fragment = new Fragment(entry, gson);
+            fragments.put(id, fragment);
+            snapshot = null;
+            serializedLights++;
+        }
+        return fragment;
+    }
+}
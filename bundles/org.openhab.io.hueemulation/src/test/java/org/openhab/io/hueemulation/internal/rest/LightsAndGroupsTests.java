@@ -21,6 +21,7 @@ import static org.mockito.Mockito.verify;
 import java.io.IOException;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -335,6 +336,34 @@ public class LightsAndGroupsTests {
         assertThat(body, containsString("color"));
     }
 
+    @Test
+    public void allLightsSnapshot() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertEquals(200, response.getStatus());
+        String etag = response.getHeaderString(HttpHeaders.ETAG);
+        assertThat(etag, notNullValue());
+        assertThat(response.readEntity(String.class), is(cs.gson.toJson(cs.ds.lights)));
+
+        // Unchanged lights
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag).get();
+        assertEquals(304, response.getStatus());
+
+        // A state change is visible without an item registry event
+        cs.ds.lights.get("2").item.setState(OnOffType.ON);
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag).get();
+        assertEquals(200, response.getStatus());
+        assertThat(response.getHeaderString(HttpHeaders.ETAG), not(etag));
+        String body = response.readEntity(String.class);
+        assertThat(body, is(cs.gson.toJson(cs.ds.lights)));
+
+        // Removed lights
+        cs.ds.lights.remove("3");
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertThat(response.readEntity(String.class), is(cs.gson.toJson(cs.ds.lights)));
+    }
+
     private boolean assertHueValue(ItemCommandEvent ce, int hueValue) {
         assertThat(((HSBType) ce.getItemCommand()).getHue().intValue(), is(hueValue * 360 / HueStateColorBulb.MAX_HUE));
         return true;
@@ -13,6 +13,7 @@
 package org.openhab.io.openhabcloud.internal;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -21,10 +22,13 @@ import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.HttpClient;
@@ -37,10 +41,12 @@ import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.URIUtil;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.openhab.core.OpenHAB;
@@ -70,6 +76,15 @@ public class CloudClient {
      */
     private final Logger logger = LoggerFactory.getLogger(CloudClient.class);
 
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    public static final int DEFAULT_RESPONSE_FRAME_SIZE = 32768;
+
+    /*
+     * Collected response content is sent at the latest after this time, so streamed responses don't stall
+     */
+    private static final long RESPONSE_FRAME_DELAY_MILLIS = 20;
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -129,6 +144,33 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * Item updates are collected for this many milliseconds before they are sent, 0 sends every update directly
+     */
+    private int itemUpdateInterval;
+
+    /*
+     * If true, the collected item updates are sent in a single 'itemupdates' message
+     */
+    private boolean itemUpdateBatching;
+
+    /*
+     * This variable holds the item updates which are not sent yet
+     */
+    private final ItemUpdateBuffer itemUpdates = new ItemUpdateBuffer();
+
+    private @Nullable ScheduledFuture<?> itemUpdateJob;
+
+    /*
+     * Content of proxied responses is sent in frames of up to this many bytes, 0 sends every received chunk directly
+     */
+    private int responseFrameSize = DEFAULT_RESPONSE_FRAME_SIZE;
+
+    /*
+     * If true, proxied text responses are gzip compressed if the requesting client accepts it
+     */
+    private boolean responseCompression;
+
     /**
      * Constructor of CloudClient
      *
@@ -223,6 +265,10 @@ public class CloudClient {
             }
         });
         socket.connect();
+        if (itemUpdateInterval > 0) {
+            itemUpdateJob = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD).scheduleWithFixedDelay(
+                    this::flushItemUpdates, itemUpdateInterval, itemUpdateInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -332,7 +378,7 @@ public class CloudClient {
                 logger.warn("Unsupported request method {}", requestMethod);
                 return;
             }
-            ResponseListener listener = new ResponseListener(requestId);
+            ResponseListener listener = new ResponseListener(requestId, acceptsGzip(requestHeadersJson));
             request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
             // If successfully submitted request to http client, add it to the list of currently
             // running requests to be able to cancel it if needed
@@ -360,6 +406,17 @@ public class CloudClient {
         }
     }
 
+    private boolean acceptsGzip(JSONObject requestHeadersJson) {
+        Iterator<String> headersIterator = requestHeadersJson.keys();
+        while (headersIterator.hasNext()) {
+            String headerName = headersIterator.next();
+            if (HttpHeader.ACCEPT_ENCODING.is(headerName)) {
+                return requestHeadersJson.optString(headerName).toLowerCase(Locale.ROOT).contains("gzip");
+            }
+        }
+        return false;
+    }
+
     private void handleCancelEvent(JSONObject data) {
         try {
             int requestId = data.getInt("id");
@@ -470,13 +527,12 @@ public class CloudClient {
      *
      */
     public void sendItemUpdate(String itemName, String itemState) {
-        if (isConnected()) {
+        if (itemUpdateInterval > 0) {
+            itemUpdates.put(itemName, itemState);
+        } else if (isConnected()) {
             logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
-            JSONObject itemUpdateMessage = new JSONObject();
             try {
-                itemUpdateMessage.put("itemName", itemName);
-                itemUpdateMessage.put("itemStatus", itemState);
-                socket.emit("itemupdate", itemUpdateMessage);
+                socket.emit("itemupdate", createItemUpdateMessage(itemName, itemState));
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
@@ -485,6 +541,45 @@ public class CloudClient {
         }
     }
 
+    /**
+     * Sends the collected item updates. Updates are kept while there is no connection.
+     */
+    private void flushItemUpdates() {
+        if (!isConnected()) {
+            return;
+        }
+        try {
+            Map<String, String> updates = itemUpdates.drain();
+            if (updates.isEmpty()) {
+                return;
+            }
+            logger.debug("Sending {} item updates", updates.size());
+            if (itemUpdateBatching) {
+                JSONArray itemUpdatesMessage = new JSONArray();
+                for (Map.Entry<String, String> update : updates.entrySet()) {
+                    itemUpdatesMessage.put(createItemUpdateMessage(update.getKey(), update.getValue()));
+                }
+                socket.emit("itemupdates", itemUpdatesMessage);
+                itemUpdates.sent(updates.size(), 1);
+            } else {
+                for (Map.Entry<String, String> update : updates.entrySet()) {
+                    socket.emit("itemupdate", createItemUpdateMessage(update.getKey(), update.getValue()));
+                }
+                itemUpdates.sent(updates.size(), updates.size());
+            }
+            logger.trace("Item update statistics: {}", itemUpdates);
+        } catch (JSONException e) {
+            logger.debug("{}", e.getMessage());
+        }
+    }
+
+    private JSONObject createItemUpdateMessage(String itemName, String itemState) throws JSONException {
+        JSONObject itemUpdateMessage = new JSONObject();
+        itemUpdateMessage.put("itemName", itemName);
+        itemUpdateMessage.put("itemStatus", itemState);
+        return itemUpdateMessage;
+    }
+
     /**
      * Returns true if openHAB Cloud connection is active
      */
@@ -497,6 +592,12 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        ScheduledFuture<?> job = itemUpdateJob;
+        if (job != null) {
+            job.cancel(false);
+            itemUpdateJob = null;
+            logger.debug("Item update statistics: {}", itemUpdates);
+        }
         socket.disconnect();
     }
 
@@ -512,32 +613,85 @@ public class CloudClient {
         this.listener = listener;
     }
 
+    /**
+     * Configures how item updates are sent, has to be called before {@link #connect()}
+     *
+     * @param interval milliseconds to collect item updates before they are sent, 0 to send every update directly
+     * @param batching true to send the collected updates in a single message
+     */
+    public void setItemUpdateOptions(int interval, boolean batching) {
+        this.itemUpdateInterval = interval;
+        this.itemUpdateBatching = batching;
+    }
+
+    /**
+     * Configures how the content of proxied responses is sent
+     *
+     * @param frameSize maximum size of a content message, 0 to send every received chunk directly
+     * @param compression true to gzip compress text responses for clients that accept it
+     */
+    public void setResponseOptions(int frameSize, boolean compression) {
+        this.responseFrameSize = frameSize;
+        this.responseCompression = compression;
+    }
+
     /*
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
             implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
-
-        public ResponseListener(int requestId) {
+        private final boolean mAcceptsGzip;
+        private final long mStartTime = System.currentTimeMillis();
+        private long mBytesReceived;
+        private int mChunksSent;
+        private long mBytesSent;
+
+        /* collects the content into frames, null if every chunk is sent directly */
+        private @Nullable ContentFrameWriter mFrameWriter;
+        /* stream the content is written to, the frame writer or a gzip stream on top of it */
+        private @Nullable OutputStream mContentStream;
+        private @Nullable ScheduledFuture<?> mFlushJob;
+
+        public ResponseListener(int requestId, boolean acceptsGzip) {
             mRequestId = requestId;
+            mAcceptsGzip = acceptsGzip;
         }
 
-        private JSONObject getJSONHeaders(HttpFields httpFields) {
+        private JSONObject getJSONHeaders(HttpFields httpFields, boolean compressed) {
             JSONObject headersJSON = new JSONObject();
             try {
                 for (HttpField field : httpFields) {
+                    if (compressed && field.getHeader() == HttpHeader.CONTENT_LENGTH) {
+                        continue;
+                    }
                     headersJSON.put(field.getName(), field.getValue());
                 }
+                if (compressed) {
+                    headersJSON.put(HttpHeader.CONTENT_ENCODING.asString(), "gzip");
+                }
             } catch (JSONException e) {
                 logger.warn("Error forming response headers: {}", e.getMessage());
             }
             return headersJSON;
         }
 
+        private boolean isCompressible(Response response) {
+            if (!responseCompression || !mAcceptsGzip || response.getStatus() != HttpStatus.OK_200
+                    || response.getHeaders().containsKey(HttpHeader.CONTENT_ENCODING.asString())) {
+                return false;
+            }
+            String contentType = response.getHeaders().get(HttpHeader.CONTENT_TYPE);
+            if (contentType == null) {
+                return false;
+            }
+            contentType = contentType.toLowerCase(Locale.ROOT);
+            return contentType.startsWith("text/") || contentType.contains("json") || contentType.contains("xml")
+                    || contentType.contains("javascript");
+        }
+
         @Override
         public void onComplete(Result result) {
             // Remove this request from list of running requests
@@ -555,6 +709,8 @@ public class CloudClient {
                 }
             }
 
+            finishContent(result == null || !result.isFailed());
+
             /**
              * What is this? In some cases where latency is very low the myopenhab service
              * can receive responseFinished before the headers or content are received and I
@@ -585,28 +741,43 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public synchronized void onContent(Response response, ByteBuffer content) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
-            JSONObject responseJson = new JSONObject();
+            mBytesReceived += content.remaining();
+            OutputStream contentStream = mContentStream;
+            if (contentStream == null) {
+                sendContent(BufferUtil.toArray(content));
+                return;
+            }
             try {
-                responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
-                logger.debug("Sent content to request {}", mRequestId);
-            } catch (JSONException e) {
-                logger.debug("{}", e.getMessage());
+                if (contentStream instanceof ContentFrameWriter) {
+                    ((ContentFrameWriter) contentStream).write(content);
+                } else if (content.hasArray()) {
+                    contentStream.write(content.array(), content.arrayOffset() + content.position(),
+                            content.remaining());
+                } else {
+                    contentStream.write(BufferUtil.toArray(content));
+                }
+            } catch (IOException e) {
+                logger.debug("Error compressing content of request {}: {}", mRequestId, e.getMessage());
+            }
+            if (mFlushJob == null) {
+                mFlushJob = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD).schedule(this::flushContent,
+                        RESPONSE_FRAME_DELAY_MILLIS, TimeUnit.MILLISECONDS);
             }
         }
 
         @Override
-        public void onHeaders(Response response) {
+        public synchronized void onHeaders(Response response) {
             if (!mHeadersSent) {
                 logger.debug("Jetty finished receiving response header");
                 JSONObject responseJson = new JSONObject();
                 mHeadersSent = true;
+                boolean compressed = isCompressible(response);
+                createContentStream(compressed);
                 try {
                     responseJson.put("id", mRequestId);
-                    responseJson.put("headers", getJSONHeaders(response.getHeaders()));
+                    responseJson.put("headers", getJSONHeaders(response.getHeaders(), compressed));
                     responseJson.put("responseStatusCode", response.getStatus());
                     responseJson.put("responseStatusText", "OK");
                     socket.emit("responseHeader", responseJson);
@@ -617,5 +788,76 @@ public class CloudClient {
                 }
             }
         }
+
+        private void createContentStream(boolean compressed) {
+            if (responseFrameSize <= 0 && !compressed) {
+                return;
+            }
+            // without aggregation a frame holds what one write of the gzip stream produces
+            ContentFrameWriter frameWriter = new ContentFrameWriter(jettyClient.getByteBufferPool(),
+                    responseFrameSize > 0 ? responseFrameSize : DEFAULT_RESPONSE_FRAME_SIZE, this::sendContent);
+            mFrameWriter = frameWriter;
+            mContentStream = frameWriter;
+            if (compressed) {
+                try {
+                    // sync flush, so content of streamed responses is passed on by timed flushes
+                    mContentStream = new GZIPOutputStream(frameWriter, true);
+                } catch (IOException e) {
+                    logger.debug("Error compressing content of request {}: {}", mRequestId, e.getMessage());
+                }
+            }
+        }
+
+        private synchronized void flushContent() {
+            mFlushJob = null;
+            OutputStream contentStream = mContentStream;
+            if (contentStream != null) {
+                try {
+                    contentStream.flush();
+                } catch (IOException e) {
+                    logger.debug("Error compressing content of request {}: {}", mRequestId, e.getMessage());
+                }
+            }
+        }
+
+        private synchronized void finishContent(boolean successful) {
+            ScheduledFuture<?> flushJob = mFlushJob;
+            if (flushJob != null) {
+                flushJob.cancel(false);
+                mFlushJob = null;
+            }
+            OutputStream contentStream = mContentStream;
+            ContentFrameWriter frameWriter = mFrameWriter;
+            if (contentStream != null && frameWriter != null) {
+                if (successful) {
+                    try {
+                        contentStream.close();
+                    } catch (IOException e) {
+                        logger.debug("Error compressing content of request {}: {}", mRequestId, e.getMessage());
+                    }
+                }
+                frameWriter.discard();
+                mContentStream = null;
+            }
+            if (logger.isDebugEnabled()) {
+                long duration = Math.max(1, System.currentTimeMillis() - mStartTime);
+                logger.debug("Request {} relayed {} bytes as {} bytes in {} messages within {} ms ({} KB/s)",
+                        mRequestId, mBytesReceived, mBytesSent, mChunksSent, duration, mBytesSent / duration);
+            }
+        }
+
+        private void sendContent(byte[] content) {
+            JSONObject responseJson = new JSONObject();
+            try {
+                responseJson.put("id", mRequestId);
+                responseJson.put("body", content);
+                socket.emit("responseContentBinary", responseJson);
+                mChunksSent++;
+                mBytesSent += content.length;
+                logger.debug("Sent content to request {}", mRequestId);
+            } catch (JSONException e) {
+                logger.debug("{}", e.getMessage());
+            }
+        }
     }
 }
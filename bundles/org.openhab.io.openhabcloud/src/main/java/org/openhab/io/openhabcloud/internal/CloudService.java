@@ -28,6 +28,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.HttpClient;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.config.core.ConfigurableService;
+import org.openhab.core.config.core.Configuration;
 import org.openhab.core.events.Event;
 import org.openhab.core.events.EventFilter;
 import org.openhab.core.events.EventPublisher;
@@ -92,6 +93,10 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
     private boolean remoteAccessEnabled = true;
     private Set<String> exposedItems = null;
+    private int itemUpdateInterval = 0;
+    private boolean itemUpdateBatching = false;
+    private int responseFrameSize = CloudClient.DEFAULT_RESPONSE_FRAME_SIZE;
+    private boolean responseCompression = false;
     private int localPort;
 
     @Activate
@@ -226,6 +231,12 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             }
         }
 
+        CloudServiceConfiguration configuration = new Configuration(config).as(CloudServiceConfiguration.class);
+        itemUpdateInterval = Math.max(0, configuration.itemUpdateInterval);
+        itemUpdateBatching = configuration.itemUpdateBatching;
+        responseFrameSize = Math.max(0, configuration.responseFrameSize);
+        responseCompression = configuration.responseCompression;
+
         logger.debug("UUID = {}, secret = {}", InstanceUUID.get(), getSecret());
 
         if (cloudClient != null) {
@@ -244,6 +255,8 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         cloudClient = new CloudClient(httpClient, InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl,
                 remoteAccessEnabled, exposedItems);
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
+        cloudClient.setItemUpdateOptions(itemUpdateInterval, itemUpdateBatching);
+        cloudClient.setResponseOptions(responseFrameSize, responseCompression);
         cloudClient.connect();
         cloudClient.setListener(this);
         NotificationAction.cloudService = this;
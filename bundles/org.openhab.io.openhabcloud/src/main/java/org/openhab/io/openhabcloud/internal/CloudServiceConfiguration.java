@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Options of the {@link CloudService} for item updates and proxied responses.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CloudServiceConfiguration {
+    /** milliseconds during which item updates are coalesced, 0 to send every update directly */
+    public int itemUpdateInterval = 0;
+    public boolean itemUpdateBatching = false;
+    /** size of the frames that proxied responses are sent in */
+    public int responseFrameSize = CloudClient.DEFAULT_RESPONSE_FRAME_SIZE;
+    public boolean responseCompression = false;
+}
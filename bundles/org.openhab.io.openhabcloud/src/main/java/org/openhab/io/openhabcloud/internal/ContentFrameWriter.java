@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.util.BufferUtil;
+
+/**
+ * Aggregates the content of a proxied response into frames of up to a maximum size. The content is collected in a
+ * buffer taken from a {@link ByteBufferPool}, so only one array is allocated per frame instead of one per received
+ * chunk. The buffer is returned to the pool by {@link #close()}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ContentFrameWriter extends OutputStream {
+
+    private final ByteBufferPool bufferPool;
+    private final int frameSize;
+    private final Consumer<byte[]> frameConsumer;
+
+    private @Nullable ByteBuffer buffer;
+    private boolean closed;
+
+    /**
+     * @param bufferPool pool for the aggregation buffer
+     * @param frameSize maximum size of a frame
+     * @param frameConsumer receives the frames
+     */
+    public ContentFrameWriter(ByteBufferPool bufferPool, int frameSize, Consumer<byte[]> frameConsumer) {
+        this.bufferPool = bufferPool;
+        this.frameSize = Math.max(1, frameSize);
+        this.frameConsumer = frameConsumer;
+    }
+
+    @Override
+    public void write(int b) {
+        getBuffer().put((byte) b);
+        flushIfFull();
+    }
+
+    @Override
+    public void write(byte @Nullable [] bytes, int offset, int length) {
+        if (bytes == null) {
+            return;
+        }
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            ByteBuffer target = getBuffer();
+            int count = Math.min(remaining, target.remaining());
+            target.put(bytes, position, count);
+            position += count;
+            remaining -= count;
+            flushIfFull();
+        }
+    }
+
+    /**
+     * Writes the remaining content of a buffer without changing its position.
+     */
+    public void write(ByteBuffer content) {
+        ByteBuffer source = content.slice();
+        while (source.hasRemaining()) {
+            ByteBuffer target = getBuffer();
+            int count = Math.min(source.remaining(), target.remaining());
+            ByteBuffer part = source.slice();
+            part.limit(count);
+            target.put(part);
+            source.position(source.position() + count);
+            flushIfFull();
+        }
+    }
+
+    /**
+     * Passes the collected content on as a frame, if there is any.
+     */
+    @Override
+    public void flush() {
+        ByteBuffer current = buffer;
+        if (current == null || current.position() == 0) {
+            return;
+        }
+        byte[] frame = new byte[current.position()];
+        current.flip();
+        current.get(frame);
+        current.clear();
+        current.limit(Math.min(current.capacity(), frameSize));
+        frameConsumer.accept(frame);
+    }
+
+    /**
+     * Passes the remaining content on and returns the buffer to the pool.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            flush();
+            discard();
+        }
+    }
+
+    /**
+     * Drops the collected content and returns the buffer to the pool.
+     */
+    public void discard() {
+        closed = true;
+        ByteBuffer current = buffer;
+        if (current != null) {
+            buffer = null;
+            BufferUtil.clear(current);
+            bufferPool.release(current);
+        }
+    }
+
+    private ByteBuffer getBuffer() {
+        ByteBuffer current = buffer;
+        if (current == null) {
+            if (closed) {
+                throw new IllegalStateException("Content writer is closed");
+            }
+            current = bufferPool.acquire(frameSize, false);
+            current.clear();
+            current.limit(Math.min(current.capacity(), frameSize));
+            buffer = current;
+        }
+        return current;
+    }
+
+    private void flushIfFull() {
+        ByteBuffer current = buffer;
+        if (current != null && !current.hasRemaining()) {
+            flush();
+        }
+    }
+}
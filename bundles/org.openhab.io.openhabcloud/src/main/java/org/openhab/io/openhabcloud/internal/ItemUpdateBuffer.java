@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Collects item updates that are sent to the openHAB Cloud in intervals. Only the latest state of every item is
+ * kept, so the number of buffered updates never exceeds the number of exposed items.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ItemUpdateBuffer {
+
+    /* latest state per item name, in the order the items were first updated */
+    private final Map<String, String> pending = new LinkedHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong sentUpdates = new AtomicLong();
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    /**
+     * Adds an item update, replacing a buffered update of the same item.
+     */
+    public synchronized void put(String itemName, String itemState) {
+        received.incrementAndGet();
+        if (pending.put(itemName, itemState) != null) {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes and returns all buffered updates.
+     */
+    public synchronized Map<String, String> drain() {
+        if (pending.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> updates = new LinkedHashMap<>(pending);
+        pending.clear();
+        return updates;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    public void sent(int updates, int messages) {
+        sentUpdates.addAndGet(updates);
+        sentMessages.addAndGet(messages);
+    }
+
+    @Override
+    public String toString() {
+        return "ItemUpdateBuffer{received=" + received + ", coalesced=" + coalesced + ", sentUpdates=" + sentUpdates
+                + ", sentMessages=" + sentMessages + ", pending=" + size() + "}";
+    }
+}
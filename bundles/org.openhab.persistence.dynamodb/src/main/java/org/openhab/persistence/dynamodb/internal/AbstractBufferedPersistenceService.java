@@ -15,10 +15,8 @@ package org.openhab.persistence.dynamodb.internal;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -32,6 +30,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Abstract class for buffered persistence services
  *
+ * Stored items are collected in a {@link PersistenceBuffer} and written by its flusher thread in batches.
+ *
  * @param <T> Type of the state as accepted by the AWS SDK.
  *
  * @author Sami Salonen - Initial contribution
@@ -44,21 +44,59 @@ public abstract class AbstractBufferedPersistenceService<T> implements Persisten
     private static final long BUFFER_OFFER_TIMEOUT_MILLIS = 500;
 
     private final Logger logger = LoggerFactory.getLogger(AbstractBufferedPersistenceService.class);
-    protected @Nullable BlockingQueue<T> buffer;
+    protected @Nullable PersistenceBuffer<T> buffer;
 
     private boolean writeImmediately;
 
-    protected void resetWithBufferSize(int bufferSize) {
-        int capacity = Math.max(1, bufferSize);
-        buffer = new ArrayBlockingQueue<>(capacity, true);
+    /**
+     * Replaces the buffer. Items of a previous buffer are written before it is discarded.
+     *
+     * @param bufferSize capacity of the buffer, 0 to write every item immediately
+     * @param maxLatencyMillis maximum time an item is buffered before it is written
+     * @param flushSize number of buffered items that are written without waiting for the latency to pass
+     * @param threadName name of the flusher thread
+     */
+    protected void resetWithBufferSize(int bufferSize, long maxLatencyMillis, int flushSize, String threadName) {
+        stopBuffer();
+        PersistenceBuffer<T> newBuffer = new PersistenceBuffer<>(bufferSize, maxLatencyMillis, flushSize, threadName,
+                this::writeBufferedData);
         writeImmediately = bufferSize == 0;
+        if (!writeImmediately) {
+            newBuffer.start();
+        }
+        buffer = newBuffer;
+    }
+
+    /**
+     * Stops the flusher thread after writing all buffered items.
+     */
+    protected void stopBuffer() {
+        PersistenceBuffer<T> buffer = this.buffer;
+        if (buffer != null) {
+            buffer.stop();
+            buffer.flush();
+        }
     }
 
     protected abstract T persistenceItemFromState(String name, State state, ZonedDateTime time);
 
     protected abstract boolean isReadyToStore();
 
-    protected abstract void flushBufferedData();
+    /**
+     * Writes a batch of buffered items. Called by the flusher thread, or by the storing thread if items are written
+     * immediately.
+     */
+    protected abstract void writeBufferedData(List<T> items);
+
+    /**
+     * Writes all buffered items in the calling thread.
+     */
+    protected void flushBufferedData() {
+        PersistenceBuffer<T> buffer = this.buffer;
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
 
     @Override
     public void store(Item item) {
@@ -76,6 +114,7 @@ public abstract class AbstractBufferedPersistenceService<T> implements Persisten
         if (!isReadyToStore()) {
             return;
         }
+        PersistenceBuffer<T> buffer = this.buffer;
         if (buffer == null) {
             throw new IllegalStateException("Buffer not initialized with resetWithBufferSize. Bug?");
         }
@@ -90,40 +129,19 @@ public abstract class AbstractBufferedPersistenceService<T> implements Persisten
             // We want to write everything immediately
             // Synchronous behavior to ensure buffer does not get full.
             synchronized (this) {
-                boolean buffered = addToBuffer(persistenceItem);
-                assert buffered;
-                flushBufferedData();
+                writeBufferedData(List.of(persistenceItem));
             }
         } else {
             long bufferStart = System.currentTimeMillis();
-            boolean buffered = addToBuffer(persistenceItem);
-            if (buffered) {
+            // a full buffer is being written by the flusher thread, wait a bit for free space
+            if (buffer.offer(persistenceItem, BUFFER_OFFER_TIMEOUT_MILLIS)) {
                 logger.debug("Buffered item {} in {} ms. Total time for store(): {} [{}]", realName,
                         System.currentTimeMillis() - bufferStart, System.currentTimeMillis() - storeStart, uuid);
             } else {
-                logger.debug(
-                        "Buffer is full. Writing buffered data immediately and trying again. Consider increasing bufferSize");
-                // Buffer is full, commit it immediately
-                flushBufferedData();
-                boolean buffered2 = addToBuffer(persistenceItem);
-                if (buffered2) {
-                    logger.debug("Buffered item in {} ms (2nd try, flushed buffer in-between) [{}]",
-                            System.currentTimeMillis() - bufferStart, uuid);
-                } else {
-                    // The unlikely case happened -- buffer got full again immediately
-                    logger.warn("Buffering failed for the second time -- Too small bufferSize? Discarding data [{}]",
-                            uuid);
-                }
+                logger.warn(
+                        "Buffer is full, discarding data [{}]. {} items discarded so far -- Too small bufferSize or too many items persisted?",
+                        uuid, buffer.getDroppedCount());
             }
         }
     }
-
-    protected boolean addToBuffer(T persistenceItem) {
-        try {
-            return buffer != null && buffer.offer(persistenceItem, BUFFER_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.warn("Interrupted when trying to buffer data! Dropping data");
-            return false;
-        }
-    }
 }
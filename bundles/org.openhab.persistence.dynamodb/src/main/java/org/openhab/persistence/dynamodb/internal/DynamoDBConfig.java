@@ -39,6 +39,7 @@ public class DynamoDBConfig {
     public static final long DEFAULT_WRITE_CAPACITY_UNITS = 1;
     public static final long DEFAULT_BUFFER_COMMIT_INTERVAL_MILLIS = 1000;
     public static final int DEFAULT_BUFFER_SIZE = 1000;
+    public static final int DEFAULT_MAX_PARALLEL_WRITES = 1;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DynamoDBConfig.class);
 
@@ -50,6 +51,7 @@ public class DynamoDBConfig {
     private long writeCapacityUnits = DEFAULT_WRITE_CAPACITY_UNITS;
     private long bufferCommitIntervalMillis = DEFAULT_BUFFER_COMMIT_INTERVAL_MILLIS;
     private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int maxParallelWrites = DEFAULT_MAX_PARALLEL_WRITES;
 
     /**
      *
@@ -141,8 +143,17 @@ public class DynamoDBConfig {
                 bufferSize = Integer.parseInt(bufferSizeParam);
             }
 
+            final int maxParallelWrites;
+            String maxParallelWritesParam = (String) config.get("maxParallelWrites");
+            if (maxParallelWritesParam == null || maxParallelWritesParam.isBlank()) {
+                LOGGER.debug("Max parallel writes: {}", DEFAULT_MAX_PARALLEL_WRITES);
+                maxParallelWrites = DEFAULT_MAX_PARALLEL_WRITES;
+            } else {
+                maxParallelWrites = Math.max(1, Integer.parseInt(maxParallelWritesParam));
+            }
+
             return new DynamoDBConfig(region, credentials, table, createTable, readCapacityUnits, writeCapacityUnits,
-                    bufferCommitIntervalMillis, bufferSize);
+                    bufferCommitIntervalMillis, bufferSize, maxParallelWrites);
         } catch (Exception e) {
             LOGGER.error("Error with configuration", e);
             return null;
@@ -150,7 +161,8 @@ public class DynamoDBConfig {
     }
 
     public DynamoDBConfig(Regions region, AWSCredentials credentials, String table, boolean createTable,
-            long readCapacityUnits, long writeCapacityUnits, long bufferCommitIntervalMillis, int bufferSize) {
+            long readCapacityUnits, long writeCapacityUnits, long bufferCommitIntervalMillis, int bufferSize,
+            int maxParallelWrites) {
         this.region = region;
         this.credentials = credentials;
         this.tablePrefix = table;
@@ -159,6 +171,7 @@ public class DynamoDBConfig {
         this.writeCapacityUnits = writeCapacityUnits;
         this.bufferCommitIntervalMillis = bufferCommitIntervalMillis;
         this.bufferSize = bufferSize;
+        this.maxParallelWrites = maxParallelWrites;
     }
 
     public AWSCredentials getCredentials() {
@@ -192,4 +205,8 @@ public class DynamoDBConfig {
     public int getBufferSize() {
         return bufferSize;
     }
+
+    public int getMaxParallelWrites() {
+        return maxParallelWrites;
+    }
 }
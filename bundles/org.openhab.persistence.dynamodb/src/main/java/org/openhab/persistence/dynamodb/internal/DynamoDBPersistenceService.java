@@ -13,21 +13,19 @@
 package org.openhab.persistence.dynamodb.internal;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -161,8 +159,10 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     }
 
     private static final int WAIT_ON_FIRST_RESOURCE_NOT_FOUND_MILLIS = 5000;
-    private static final int[] WAIT_MILLIS_IN_RETRIES = new int[] { 100, 100, 200, 300, 500 };
+    private static final int[] WAIT_MILLIS_IN_RETRIES = new int[] { 100, 200, 400, 800, 1600 };
     private static final String DYNAMODB_THREADPOOL_NAME = "dynamodbPersistenceService";
+    /** maximum number of items in a single BatchWriteItem request */
+    private static final int BATCH_WRITE_MAX_ITEMS = 25;
 
     private final ItemRegistry itemRegistry;
     private @Nullable DynamoDBClient db;
@@ -170,9 +170,8 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     private boolean isProperlyConfigured;
     private @NonNullByDefault({}) DynamoDBConfig dbConfig;
     private @NonNullByDefault({}) DynamoDBTableNameResolver tableNameResolver;
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
-            new NamedThreadFactory(DYNAMODB_THREADPOOL_NAME));
-    private @Nullable ScheduledFuture<?> writeBufferedDataFuture;
+    private @Nullable ExecutorService writeExecutor;
+    private final Map<String, DynamoDBMapper> mappers = new ConcurrentHashMap<>();
 
     @Activate
     public DynamoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
@@ -210,27 +209,12 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
             return;
         }
 
-        writeBufferedDataFuture = null;
-        resetWithBufferSize(dbConfig.getBufferSize());
-        long commitIntervalMillis = dbConfig.getBufferCommitIntervalMillis();
-        if (commitIntervalMillis > 0) {
-            writeBufferedDataFuture = scheduler.scheduleWithFixedDelay(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        DynamoDBPersistenceService.this.flushBufferedData();
-                    } catch (RuntimeException e) {
-                        // We want to catch all unexpected exceptions since all unhandled exceptions make
-                        // ScheduledExecutorService halt the regular running of the task.
-                        // It is better to print out the exception, and try again
-                        // (on next cycle)
-                        logger.warn(
-                                "Execution of scheduled flushing of buffered data failed unexpectedly. Ignoring exception, trying again according to configured commit interval of {} ms.",
-                                commitIntervalMillis, e);
-                    }
-                }
-            }, 0, commitIntervalMillis, TimeUnit.MILLISECONDS);
-        }
+        int maxParallelWrites = dbConfig.getMaxParallelWrites();
+        writeExecutor = Executors.newFixedThreadPool(maxParallelWrites,
+                new NamedThreadFactory(DYNAMODB_THREADPOOL_NAME));
+        // flush as soon as there is enough data for one batch request per writer thread
+        resetWithBufferSize(dbConfig.getBufferSize(), dbConfig.getBufferCommitIntervalMillis(),
+                BATCH_WRITE_MAX_ITEMS * maxParallelWrites, DYNAMODB_THREADPOOL_NAME + "-flusher");
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
     }
@@ -238,9 +222,12 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     @Deactivate
     public void deactivate() {
         logger.debug("dynamodb persistence service deactivated");
-        if (writeBufferedDataFuture != null) {
-            writeBufferedDataFuture.cancel(false);
-            writeBufferedDataFuture = null;
+        // write what is still buffered while the client is available
+        stopBuffer();
+        ExecutorService executor = writeExecutor;
+        if (executor != null) {
+            executor.shutdown();
+            writeExecutor = null;
         }
         resetClient();
     }
@@ -351,12 +338,17 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
         }
         db.shutdown();
         db = null;
+        mappers.clear();
         dbConfig = null;
         tableNameResolver = null;
         isProperlyConfigured = false;
     }
 
     private DynamoDBMapper getDBMapper(String tableName) {
+        return mappers.computeIfAbsent(tableName, this::createDBMapper);
+    }
+
+    private DynamoDBMapper createDBMapper(String tableName) {
         try {
             DynamoDBMapperConfig mapperConfig = new DynamoDBMapperConfig.Builder()
                     .withTableNameOverride(new DynamoDBMapperConfig.TableNameOverride(tableName))
@@ -389,44 +381,42 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     }
 
     @Override
-    protected void flushBufferedData() {
-        if (buffer != null && buffer.isEmpty()) {
-            return;
-        }
-        logger.debug("Writing buffered data. Buffer size: {}", buffer.size());
-
-        for (;;) {
-            Map<String, Deque<DynamoDBItem<?>>> itemsByTable = readBuffer();
-            // Write batch of data, one table at a time
-            for (Entry<String, Deque<DynamoDBItem<?>>> entry : itemsByTable.entrySet()) {
-                String tableName = entry.getKey();
-                Deque<DynamoDBItem<?>> batch = entry.getValue();
-                if (!batch.isEmpty()) {
-                    flushBatch(getDBMapper(tableName), batch);
+    protected void writeBufferedData(List<DynamoDBItem<?>> items) {
+        logger.debug("Writing buffered data. Number of items: {}", items.size());
+        ExecutorService executor = writeExecutor;
+        List<Future<?>> writes = new ArrayList<>();
+        for (Entry<String, List<DynamoDBItem<?>>> entry : groupByTable(items).entrySet()) {
+            DynamoDBMapper mapper = getDBMapper(entry.getKey());
+            List<DynamoDBItem<?>> tableItems = entry.getValue();
+            // one BatchWriteItem request per chunk, chunks are written in parallel
+            for (int from = 0; from < tableItems.size(); from += BATCH_WRITE_MAX_ITEMS) {
+                List<DynamoDBItem<?>> chunk = tableItems.subList(from,
+                        Math.min(from + BATCH_WRITE_MAX_ITEMS, tableItems.size()));
+                if (executor == null || executor.isShutdown()) {
+                    flushBatch(mapper, chunk);
+                } else {
+                    writes.add(executor.submit(() -> flushBatch(mapper, chunk)));
                 }
             }
-            if (buffer != null && buffer.isEmpty()) {
-                break;
+        }
+        for (Future<?> write : writes) {
+            try {
+                write.get();
+            } catch (ExecutionException e) {
+                logger.warn("Writing batch of data failed unexpectedly", e.getCause());
+            } catch (InterruptedException e) {
+                logger.debug("Interrupted while writing data!");
+                Thread.currentThread().interrupt();
+                return;
             }
         }
     }
 
-    private Map<String, Deque<DynamoDBItem<?>>> readBuffer() {
-        Map<String, Deque<DynamoDBItem<?>>> batchesByTable = new HashMap<>(2);
-        // Get batch of data
-        while (!buffer.isEmpty()) {
-            DynamoDBItem<?> dynamoItem = buffer.poll();
-            if (dynamoItem == null) {
-                break;
-            }
+    private Map<String, List<DynamoDBItem<?>>> groupByTable(List<DynamoDBItem<?>> items) {
+        Map<String, List<DynamoDBItem<?>>> batchesByTable = new HashMap<>(2);
+        for (DynamoDBItem<?> dynamoItem : items) {
             String tableName = tableNameResolver.fromItem(dynamoItem);
-            Deque<DynamoDBItem<?>> batch = batchesByTable.computeIfAbsent(tableName, new Function<>() {
-                @Override
-                public @Nullable Deque<DynamoDBItem<?>> apply(@Nullable String t) {
-                    return new ArrayDeque<>();
-                }
-            });
-            batch.add(dynamoItem);
+            batchesByTable.computeIfAbsent(tableName, t -> new ArrayList<>()).add(dynamoItem);
         }
         return batchesByTable;
     }
@@ -437,7 +427,7 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
      * @param mapper mapper associated with the batch
      * @param batch batch of data to write to DynamoDB
      */
-    private void flushBatch(DynamoDBMapper mapper, Deque<DynamoDBItem<?>> batch) {
+    private void flushBatch(DynamoDBMapper mapper, List<DynamoDBItem<?>> batch) {
         long currentTimeMillis = System.currentTimeMillis();
         List<FailedBatch> failed = mapper.batchSave(batch);
         for (FailedBatch failedBatch : failed) {
@@ -467,10 +457,10 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
      * @param batch original batch of data. Used for logging and to determine table name
      * @param failedBatch failed batch that should be retried
      */
-    private void retryFlushAfterCreatingTable(DynamoDBMapper mapper, Deque<DynamoDBItem<?>> batch,
+    private void retryFlushAfterCreatingTable(DynamoDBMapper mapper, List<DynamoDBItem<?>> batch,
             FailedBatch failedBatch) {
         logger.debug("Table was not found. Trying to create table and try saving again");
-        if (createTable(mapper, batch.peek().getClass())) {
+        if (createTable(mapper, batch.get(0).getClass())) {
             logger.debug("Table creation successful, trying to save again");
             if (!failedBatch.getUnprocessedItems().isEmpty()) {
                 ExponentialBackoffRetry retry = new ExponentialBackoffRetry(failedBatch.getUnprocessedItems());
@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded in-memory buffer with a dedicated flusher thread.
+ *
+ * Buffered data is handed to the {@link Writer} as soon as {@code flushSize} items are buffered, or when the
+ * oldest buffered item has waited for {@code maxLatencyMillis}. Callers of {@link #offer} never write data
+ * themselves, so they are not blocked by slow writes.
+ *
+ * The class does not depend on DynamoDB and can be used by any persistence service that writes in batches.
+ *
+ * @param <T> type of the buffered items
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PersistenceBuffer<T> {
+
+    /**
+     * Writes a batch of buffered items.
+     */
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(List<T> items);
+    }
+
+    private static final long STOP_TIMEOUT_MILLIS = 30000;
+    /** how often an idle flusher checks whether it has been stopped */
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(PersistenceBuffer.class);
+
+    private final BlockingQueue<T> queue;
+    private final long maxLatencyMillis;
+    private final int flushSize;
+    private final Writer<T> writer;
+    private final String threadName;
+
+    /** signalled when the buffer reaches the flush size */
+    private final Object flushSignal = new Object();
+    /** serializes writes of the flusher thread and {@link #flush()} */
+    private final Object writeLock = new Object();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /** number of items the flusher has taken from the queue and not written yet */
+    private volatile int heldCount;
+
+    private volatile boolean running;
+    private @Nullable Thread thread;
+
+    /**
+     * @param capacity maximum number of buffered items
+     * @param maxLatencyMillis maximum time an item stays in the buffer, 0 to flush only when the flush size is
+     *            reached
+     * @param flushSize number of buffered items that triggers a flush
+     * @param threadName name of the flusher thread
+     * @param writer writer for the buffered items
+     */
+    public PersistenceBuffer(int capacity, long maxLatencyMillis, int flushSize, String threadName,
+            Writer<T> writer) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity), true);
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.flushSize = Math.max(1, Math.min(flushSize, Math.max(1, capacity)));
+        this.threadName = threadName;
+        this.writer = writer;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        Thread t = new Thread(this::run, threadName);
+        t.setDaemon(true);
+        t.start();
+        thread = t;
+    }
+
+    /**
+     * Stops the flusher thread and writes everything that is still buffered.
+     */
+    public synchronized void stop() {
+        Thread t = thread;
+        if (t == null) {
+            return;
+        }
+        running = false;
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+        try {
+            t.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            logger.warn("Flusher '{}' did not finish within {} ms, {} buffered items not written", threadName,
+                    STOP_TIMEOUT_MILLIS, queue.size());
+        }
+        thread = null;
+    }
+
+    /**
+     * Adds an item to the buffer, waiting at most the given time for free space.
+     *
+     * @return false if the buffer stayed full and the item was dropped
+     */
+    public boolean offer(T item, long timeoutMillis) {
+        boolean buffered;
+        try {
+            buffered = queue.offer(item, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            buffered = false;
+        }
+        if (!buffered) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        if (isFlushSizeReached()) {
+            synchronized (flushSignal) {
+                flushSignal.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all buffered items in the calling thread.
+     */
+    public void flush() {
+        List<T> batch = new ArrayList<>(queue.size());
+        synchronized (writeLock) {
+            queue.drainTo(batch);
+            write(batch);
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>();
+        while (running) {
+            try {
+                T first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                heldCount = batch.size();
+                awaitFlush(System.currentTimeMillis() + maxLatencyMillis);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            synchronized (writeLock) {
+                queue.drainTo(batch);
+                heldCount = 0;
+                write(batch);
+            }
+            batch.clear();
+        }
+        flush();
+    }
+
+    /**
+     * Waits until the flush size is reached, the deadline has passed or the buffer is stopped.
+     */
+    private void awaitFlush(long deadline) throws InterruptedException {
+        synchronized (flushSignal) {
+            while (running && !isFlushSizeReached()) {
+                if (maxLatencyMillis <= 0) {
+                    flushSignal.wait();
+                    continue;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                flushSignal.wait(remaining);
+            }
+        }
+    }
+
+    /**
+     * @return true if the buffered items, including the ones held by the flusher, reach the flush size
+     */
+    private boolean isFlushSizeReached() {
+        return queue.size() + heldCount >= flushSize;
+    }
+
+    private void write(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writer.write(batch);
+        } catch (RuntimeException e) {
+            // keep the flusher running, the next batch might succeed
+            logger.warn("Writing {} buffered items failed unexpectedly", batch.size(), e);
+        }
+    }
+}
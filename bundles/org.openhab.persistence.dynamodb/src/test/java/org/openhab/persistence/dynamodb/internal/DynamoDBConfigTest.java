@@ -217,5 +217,16 @@ public class DynamoDBConfigTest {
         assertEquals(5, fromConfig.getWriteCapacityUnits());
         assertEquals(501L, fromConfig.getBufferCommitIntervalMillis());
         assertEquals(112, fromConfig.getBufferSize());
+        assertEquals(1, fromConfig.getMaxParallelWrites());
+    }
+
+    @Test
+    public void testRegionWithAccessKeysWithMaxParallelWrites() throws Exception {
+        DynamoDBConfig fromConfig = DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1",
+                "secretKey", "secret1", "maxParallelWrites", "4"));
+        assertEquals(Regions.EU_WEST_1, fromConfig.getRegion());
+        assertEquals(1000L, fromConfig.getBufferCommitIntervalMillis());
+        assertEquals(1000, fromConfig.getBufferSize());
+        assertEquals(4, fromConfig.getMaxParallelWrites());
     }
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class PersistenceBufferTest {
+
+    private final BlockingQueue<List<Integer>> written = new LinkedBlockingQueue<>();
+    private final List<PersistenceBuffer<Integer>> buffers = new ArrayList<>();
+
+    private PersistenceBuffer<Integer> createBuffer(int capacity, long maxLatencyMillis, int flushSize) {
+        PersistenceBuffer<Integer> buffer = new PersistenceBuffer<>(capacity, maxLatencyMillis, flushSize, "test",
+                items -> written.add(new ArrayList<>(items)));
+        buffers.add(buffer);
+        buffer.start();
+        return buffer;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        buffers.forEach(PersistenceBuffer::stop);
+    }
+
+    @Test
+    public void testFlushWhenFlushSizeIsReached() throws Exception {
+        PersistenceBuffer<Integer> buffer = createBuffer(100, 60000, 3);
+        assertTrue(buffer.offer(1, 0));
+        assertTrue(buffer.offer(2, 0));
+        assertNull(written.poll(200, TimeUnit.MILLISECONDS));
+        assertTrue(buffer.offer(3, 0));
+        assertEquals(List.of(1, 2, 3), written.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFlushWhenFlushSizeIsReachedWithoutMaxLatency() throws Exception {
+        PersistenceBuffer<Integer> buffer = createBuffer(100, 0, 2);
+        assertTrue(buffer.offer(1, 0));
+        assertNull(written.poll(200, TimeUnit.MILLISECONDS));
+        assertTrue(buffer.offer(2, 0));
+        assertEquals(List.of(1, 2), written.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFlushWhenMaxLatencyHasPassed() throws Exception {
+        PersistenceBuffer<Integer> buffer = createBuffer(100, 200, 50);
+        long start = System.currentTimeMillis();
+        assertTrue(buffer.offer(1, 0));
+        assertEquals(List.of(1), written.poll(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    @Test
+    public void testStopWritesBufferedItems() throws Exception {
+        PersistenceBuffer<Integer> buffer = createBuffer(100, 60000, 50);
+        assertTrue(buffer.offer(1, 0));
+        assertTrue(buffer.offer(2, 0));
+        buffer.stop();
+        assertEquals(List.of(1, 2), written.poll(0, TimeUnit.MILLISECONDS));
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testFullBufferDropsItems() throws Exception {
+        PersistenceBuffer<Integer> buffer = new PersistenceBuffer<>(2, 60000, 50, "test", items -> {
+        });
+        assertTrue(buffer.offer(1, 0));
+        assertTrue(buffer.offer(2, 0));
+        assertFalse(buffer.offer(3, 0));
+        assertEquals(1, buffer.getDroppedCount());
+    }
+}
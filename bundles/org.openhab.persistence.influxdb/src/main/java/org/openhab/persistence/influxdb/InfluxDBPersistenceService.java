@@ -14,6 +14,7 @@ package org.openhab.persistence.influxdb;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -23,9 +24,12 @@ import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.registry.RegistryChangeListener;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.ItemRegistryChangeListener;
+import org.openhab.core.items.Metadata;
 import org.openhab.core.items.MetadataRegistry;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
@@ -92,6 +96,50 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     private @NonNullByDefault({}) ItemToStorePointCreator itemToStorePointCreator;
     private @NonNullByDefault({}) InfluxDBRepository influxDBRepository;
 
+    // The tags of an item are cached by the point creator and depend on the item and its metadata
+    private final ItemRegistryChangeListener itemChangeListener = new ItemRegistryChangeListener() {
+        @Override
+        public void added(Item element) {
+            invalidateTags(element.getName());
+        }
+
+        @Override
+        public void removed(Item element) {
+            invalidateTags(element.getName());
+        }
+
+        @Override
+        public void updated(Item oldElement, Item element) {
+            invalidateTags(oldElement.getName());
+            invalidateTags(element.getName());
+        }
+
+        @Override
+        public void allItemsChanged(Collection<String> oldItemNames) {
+            final ItemToStorePointCreator currentCreator = itemToStorePointCreator;
+            if (currentCreator != null) {
+                currentCreator.invalidateAllTags();
+            }
+        }
+    };
+    private final RegistryChangeListener<Metadata> metadataChangeListener = new RegistryChangeListener<Metadata>() {
+        @Override
+        public void added(Metadata element) {
+            invalidateTags(element);
+        }
+
+        @Override
+        public void removed(Metadata element) {
+            invalidateTags(element);
+        }
+
+        @Override
+        public void updated(Metadata oldElement, Metadata element) {
+            invalidateTags(oldElement);
+            invalidateTags(element);
+        }
+    };
+
     @Activate
     public InfluxDBPersistenceService(final @Reference ItemRegistry itemRegistry,
             final @Reference MetadataRegistry metadataRegistry) {
@@ -106,6 +154,9 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     public void activate(final @Nullable Map<String, Object> config) {
         logger.debug("InfluxDB persistence service is being activated");
 
+        itemRegistry.addRegistryChangeListener(itemChangeListener);
+        metadataRegistry.addRegistryChangeListener(metadataChangeListener);
+
         if (loadConfiguration(config)) {
             itemToStorePointCreator = new ItemToStorePointCreator(configuration, metadataRegistry);
             influxDBRepository = createInfluxDBRepository();
@@ -128,6 +179,8 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("InfluxDB persistence service deactivated");
+        itemRegistry.removeRegistryChangeListener(itemChangeListener);
+        metadataRegistry.removeRegistryChangeListener(metadataChangeListener);
         if (influxDBRepository != null) {
             influxDBRepository.disconnect();
             influxDBRepository = null;
@@ -137,6 +190,19 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    private void invalidateTags(String itemName) {
+        final ItemToStorePointCreator currentCreator = itemToStorePointCreator;
+        if (currentCreator != null) {
+            currentCreator.invalidateTags(itemName);
+        }
+    }
+
+    private void invalidateTags(Metadata metadata) {
+        if (SERVICE_NAME.equals(metadata.getUID().getNamespace())) {
+            invalidateTags(metadata.getUID().getItemName());
+        }
+    }
+
     /**
      * Rerun deactivation/activation code each time configuration is changed
      */
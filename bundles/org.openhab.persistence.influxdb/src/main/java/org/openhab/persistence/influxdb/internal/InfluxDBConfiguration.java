@@ -39,6 +39,14 @@ public class InfluxDBConfiguration {
     public static final String ADD_CATEGORY_TAG_PARAM = "addCategoryTag";
     public static final String ADD_LABEL_TAG_PARAM = "addLabelTag";
     public static final String ADD_TYPE_TAG_PARAM = "addTypeTag";
+    public static final String BATCH_SIZE_PARAM = "batchSize";
+    public static final String FLUSH_INTERVAL_PARAM = "flushInterval";
+    public static final String JITTER_INTERVAL_PARAM = "jitterInterval";
+    public static final String RETRY_BUFFER_LIMIT_PARAM = "retryBufferLimit";
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final int DEFAULT_JITTER_INTERVAL = 0;
+    public static final int DEFAULT_RETRY_BUFFER_LIMIT = 10000;
     public static InfluxDBConfiguration NO_CONFIGURATION = new InfluxDBConfiguration(Collections.emptyMap());
     private final Logger logger = LoggerFactory.getLogger(InfluxDBConfiguration.class);
     private final String url;
@@ -54,6 +62,11 @@ public class InfluxDBConfiguration {
     private final boolean addTypeTag;
     private final boolean addLabelTag;
 
+    private final int batchSize;
+    private final int flushInterval;
+    private final int jitterInterval;
+    private final int retryBufferLimit;
+
     public InfluxDBConfiguration(Map<String, Object> config) {
         url = (String) config.getOrDefault(URL_PARAM, "http://127.0.0.1:8086");
         user = (String) config.getOrDefault(USER_PARAM, "openhab");
@@ -67,6 +80,13 @@ public class InfluxDBConfiguration {
         addCategoryTag = getConfigBooleanValue(config, ADD_CATEGORY_TAG_PARAM, false);
         addLabelTag = getConfigBooleanValue(config, ADD_LABEL_TAG_PARAM, false);
         addTypeTag = getConfigBooleanValue(config, ADD_TYPE_TAG_PARAM, false);
+
+        batchSize = getConfigIntValue(config, BATCH_SIZE_PARAM, DEFAULT_BATCH_SIZE, 1);
+        flushInterval = getConfigIntValue(config, FLUSH_INTERVAL_PARAM, DEFAULT_FLUSH_INTERVAL, 1);
+        jitterInterval = getConfigIntValue(config, JITTER_INTERVAL_PARAM, DEFAULT_JITTER_INTERVAL, 0);
+        // the retry buffer must be able to hold at least one batch
+        retryBufferLimit = Math.max(batchSize,
+                getConfigIntValue(config, RETRY_BUFFER_LIMIT_PARAM, DEFAULT_RETRY_BUFFER_LIMIT, 1));
     }
 
     private static boolean getConfigBooleanValue(Map<String, Object> config, String key, boolean defaultValue) {
@@ -80,6 +100,28 @@ public class InfluxDBConfiguration {
         }
     }
 
+    private int getConfigIntValue(Map<String, Object> config, String key, int defaultValue, int minValue) {
+        Object object = config.get(key);
+        int value;
+        if (object instanceof Number) {
+            value = ((Number) object).intValue();
+        } else if (object instanceof String && !((String) object).isBlank()) {
+            try {
+                value = Integer.parseInt(((String) object).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value '{}' for {}, using default {}", object, key, defaultValue);
+                return defaultValue;
+            }
+        } else {
+            return defaultValue;
+        }
+        if (value < minValue) {
+            logger.warn("Value {} for {} is too small, using {}", value, key, minValue);
+            return minValue;
+        }
+        return value;
+    }
+
     private InfluxDBVersion parseInfluxVersion(@Nullable Object value) {
         try {
             return InfluxDBVersion.valueOf((String) value);
@@ -156,6 +198,22 @@ public class InfluxDBConfiguration {
         return addLabelTag;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getJitterInterval() {
+        return jitterInterval;
+    }
+
+    public int getRetryBufferLimit() {
+        return retryBufferLimit;
+    }
+
     public String getUser() {
         return user;
     }
@@ -174,7 +232,9 @@ public class InfluxDBConfiguration {
                 + password.length() + " chars" + '\'' + ", token='" + token.length() + " chars" + '\''
                 + ", databaseName='" + databaseName + '\'' + ", retentionPolicy='" + retentionPolicy + '\''
                 + ", version=" + version + ", replaceUnderscore=" + replaceUnderscore + ", addCategoryTag="
-                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + '}';
+                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + ", batchSize="
+                + batchSize + ", flushInterval=" + flushInterval + ", jitterInterval=" + jitterInterval
+                + ", retryBufferLimit=" + retryBufferLimit + '}';
         return sb;
     }
 
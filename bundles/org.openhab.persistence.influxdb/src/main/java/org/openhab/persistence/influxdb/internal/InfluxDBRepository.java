@@ -71,4 +71,11 @@ public interface InfluxDBRepository {
      * @param influxPoint Point to write
      */
     void write(InfluxPoint influxPoint);
+
+    /**
+     * Returns the counters of the write queue
+     *
+     * @return Write statistics since the repository was created
+     */
+    InfluxDBWriteStatistics getWriteStatistics();
 }
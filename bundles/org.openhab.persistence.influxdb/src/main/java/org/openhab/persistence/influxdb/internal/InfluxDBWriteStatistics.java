@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Counters of the write queue of an {@link InfluxDBRepository}
+ *
+ * Not every client reports every counter: the InfluxDB 1.0 client doesn't report successful writes and retries, so
+ * for it only queued and dropped points are counted and the number of pending points is unknown.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteStatistics {
+    private final boolean writesReported;
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * @param writesReported whether the client reports successfully written points
+     */
+    public InfluxDBWriteStatistics(boolean writesReported) {
+        this.writesReported = writesReported;
+    }
+
+    public void pointQueued() {
+        queued.incrementAndGet();
+    }
+
+    public void pointsWritten(long count) {
+        written.addAndGet(count);
+    }
+
+    public void retry() {
+        retries.incrementAndGet();
+    }
+
+    public void pointsDropped(long count) {
+        dropped.addAndGet(count);
+    }
+
+    public void error() {
+        errors.incrementAndGet();
+    }
+
+    /**
+     * @return number of points handed to the client
+     */
+    public long getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return number of points the client reported as written
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return number of write requests that failed and were scheduled for retry
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * @return number of points the client gave up on
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return number of failed writes and buffer overflows for which the client doesn't report the affected points
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return number of points that are neither reported as written nor dropped yet, -1 if the client doesn't
+     *         report written points. Points lost by errors are counted as pending.
+     */
+    public long getPending() {
+        if (!writesReported) {
+            return -1;
+        }
+        return Math.max(0, queued.get() - written.get() - dropped.get());
+    }
+
+    @Override
+    public String toString() {
+        if (!writesReported) {
+            return "InfluxDBWriteStatistics{" + "queued=" + queued + ", dropped=" + dropped + '}';
+        }
+        return "InfluxDBWriteStatistics{" + "queued=" + queued + ", written=" + written + ", pending=" + getPending()
+                + ", retries=" + retries + ", dropped=" + dropped + ", errors=" + errors + '}';
+    }
+}
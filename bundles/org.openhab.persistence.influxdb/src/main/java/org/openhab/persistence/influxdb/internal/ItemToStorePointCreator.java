@@ -15,7 +15,10 @@ package org.openhab.persistence.influxdb.internal;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -30,12 +33,16 @@ import org.openhab.persistence.influxdb.InfluxDBPersistenceService;
 /**
  * Logic to create an InfluxDB {@link InfluxPoint} from an openHAB {@link Item}
  *
+ * The tags of an item are computed on its first point and reused until {@link #invalidateTags} is called for the
+ * item, which the {@link InfluxDBPersistenceService} does when the item or its metadata changes.
+ *
  * @author Joan Pujol Espinar - Initial contribution
  */
 @NonNullByDefault
 public class ItemToStorePointCreator {
     private final InfluxDBConfiguration configuration;
     private final @Nullable MetadataRegistry metadataRegistry;
+    private final Map<String, Map<String, String>> tagsCache = new ConcurrentHashMap<>();
 
     public ItemToStorePointCreator(InfluxDBConfiguration configuration, @Nullable MetadataRegistry metadataRegistry) {
         this.configuration = configuration;
@@ -48,15 +55,13 @@ public class ItemToStorePointCreator {
         }
 
         String measurementName = calculateMeasurementName(item, storeAlias);
-        String itemName = item.getName();
         State state = getItemState(item);
 
         Object value = InfluxDBStateConvertUtils.stateToObject(state);
 
-        InfluxPoint.Builder point = InfluxPoint.newBuilder(measurementName).withTime(Instant.now()).withValue(value)
-                .withTag(TAG_ITEM_NAME, itemName);
+        InfluxPoint.Builder point = InfluxPoint.newBuilder(measurementName).withTime(Instant.now()).withValue(value);
 
-        addPointTags(item, point);
+        tagsCache.computeIfAbsent(item.getName(), name -> createTags(item)).forEach(point::withTag);
 
         return point.build();
     }
@@ -92,17 +97,31 @@ public class ItemToStorePointCreator {
                 .findFirst().map(commandType -> commandType.asSubclass(State.class));
     }
 
-    private void addPointTags(Item item, InfluxPoint.Builder point) {
+    /**
+     * Drops the cached tags of an item, so that they are computed again for its next point.
+     */
+    public void invalidateTags(String itemName) {
+        tagsCache.remove(itemName);
+    }
+
+    public void invalidateAllTags() {
+        tagsCache.clear();
+    }
+
+    private Map<String, String> createTags(Item item) {
+        Map<String, String> tags = new HashMap<>();
+        tags.put(TAG_ITEM_NAME, item.getName());
+
         if (configuration.isAddCategoryTag()) {
             String categoryName = item.getCategory();
             if (categoryName == null) {
                 categoryName = "n/a";
             }
-            point.withTag(TAG_CATEGORY_NAME, categoryName);
+            tags.put(TAG_CATEGORY_NAME, categoryName);
         }
 
         if (configuration.isAddTypeTag()) {
-            point.withTag(TAG_TYPE_NAME, item.getType());
+            tags.put(TAG_TYPE_NAME, item.getType());
         }
 
         if (configuration.isAddLabelTag()) {
@@ -110,7 +129,7 @@ public class ItemToStorePointCreator {
             if (labelName == null) {
                 labelName = "n/a";
             }
-            point.withTag(TAG_LABEL_NAME, labelName);
+            tags.put(TAG_LABEL_NAME, labelName);
         }
 
         final MetadataRegistry currentMetadataRegistry = metadataRegistry;
@@ -119,9 +138,10 @@ public class ItemToStorePointCreator {
             Metadata metadata = currentMetadataRegistry.get(key);
             if (metadata != null) {
                 metadata.getConfiguration().forEach((tagName, tagValue) -> {
-                    point.withTag(tagName, tagValue.toString());
+                    tags.put(tagName, tagValue.toString());
                 });
             }
         }
+        return Map.copyOf(tags);
     }
 }
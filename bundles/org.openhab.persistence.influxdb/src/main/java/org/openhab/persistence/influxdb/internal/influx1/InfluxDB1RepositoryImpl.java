@@ -25,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.influxdb.BatchOptions;
 import org.influxdb.InfluxDB;
 import org.influxdb.InfluxDBFactory;
 import org.influxdb.dto.Point;
@@ -33,6 +34,7 @@ import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteStatistics;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
 import org.openhab.persistence.influxdb.internal.UnnexpectedConditionException;
@@ -49,6 +51,7 @@ import org.slf4j.LoggerFactory;
 public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
     private final Logger logger = LoggerFactory.getLogger(InfluxDB1RepositoryImpl.class);
     private InfluxDBConfiguration configuration;
+    private final InfluxDBWriteStatistics writeStatistics = new InfluxDBWriteStatistics(false);
     @Nullable
     private InfluxDB client;
 
@@ -67,14 +70,31 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                 configuration.getPassword());
         createdClient.setDatabase(configuration.getDatabaseName());
         createdClient.setRetentionPolicy(configuration.getRetentionPolicy());
-        createdClient.enableBatch(200, 100, TimeUnit.MILLISECONDS);
+        createdClient.enableBatch(BatchOptions.DEFAULTS.actions(configuration.getBatchSize())
+                .flushDuration(configuration.getFlushInterval()).jitterDuration(configuration.getJitterInterval())
+                .bufferLimit(configuration.getRetryBufferLimit()).exceptionHandler(this::handleFailedPoints));
         this.client = createdClient;
         return checkConnectionStatus();
     }
 
     @Override
     public void disconnect() {
+        final InfluxDB currentClient = this.client;
+        if (currentClient != null) {
+            // flushes the points that are still batched
+            currentClient.close();
+        }
         this.client = null;
+        logger.debug("Disconnected, {}", writeStatistics);
+    }
+
+    private void handleFailedPoints(Iterable<Point> points, Throwable throwable) {
+        long count = 0;
+        for (Point ignored : points) {
+            count++;
+        }
+        writeStatistics.pointsDropped(count);
+        logger.warn("Writing {} points failed, they are dropped: {}", count, throwable.getMessage());
     }
 
     @Override
@@ -115,6 +135,7 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
         if (currentClient != null) {
             Point clientPoint = convertPointToClientFormat(point);
             currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(), clientPoint);
+            writeStatistics.pointQueued();
         } else {
             logger.warn("Write point {} ignored due to client isn't connected", point);
         }
@@ -208,4 +229,9 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
     public Map<String, Integer> getStoredItemsCount() {
         return Collections.emptyMap();
     }
+
+    @Override
+    public InfluxDBWriteStatistics getWriteStatistics() {
+        return writeStatistics;
+    }
 }
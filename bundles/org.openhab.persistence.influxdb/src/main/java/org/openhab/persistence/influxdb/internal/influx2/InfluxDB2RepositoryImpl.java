@@ -27,6 +27,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBConstants;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteStatistics;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
 import org.openhab.persistence.influxdb.internal.UnnexpectedConditionException;
@@ -38,9 +39,14 @@ import com.influxdb.client.InfluxDBClientFactory;
 import com.influxdb.client.InfluxDBClientOptions;
 import com.influxdb.client.QueryApi;
 import com.influxdb.client.WriteApi;
+import com.influxdb.client.WriteOptions;
 import com.influxdb.client.domain.Ready;
 import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
+import com.influxdb.client.write.events.BackpressureEvent;
+import com.influxdb.client.write.events.WriteErrorEvent;
+import com.influxdb.client.write.events.WriteRetriableErrorEvent;
+import com.influxdb.client.write.events.WriteSuccessEvent;
 import com.influxdb.query.FluxTable;
 
 /**
@@ -52,6 +58,7 @@ import com.influxdb.query.FluxTable;
 public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     private final Logger logger = LoggerFactory.getLogger(InfluxDB2RepositoryImpl.class);
     private InfluxDBConfiguration configuration;
+    private final InfluxDBWriteStatistics writeStatistics = new InfluxDBWriteStatistics(true);
     @Nullable
     private InfluxDBClient client;
     @Nullable
@@ -94,20 +101,58 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         this.client = createdClient;
         logger.debug("Succesfully connected to InfluxDB. Instance ready={}", createdClient.ready());
         queryAPI = createdClient.getQueryApi();
-        writeAPI = createdClient.getWriteApi();
+        writeAPI = createWriteAPI(createdClient);
         return checkConnectionStatus();
     }
 
+    private WriteApi createWriteAPI(InfluxDBClient createdClient) {
+        WriteOptions writeOptions = WriteOptions.builder().batchSize(configuration.getBatchSize())
+                .flushInterval(configuration.getFlushInterval()).jitterInterval(configuration.getJitterInterval())
+                .bufferLimit(configuration.getRetryBufferLimit()).build();
+        WriteApi createdWriteAPI = createdClient.getWriteApi(writeOptions);
+        createdWriteAPI.listenEvents(WriteSuccessEvent.class,
+                event -> writeStatistics.pointsWritten(countLines(event.getLineProtocol())));
+        createdWriteAPI.listenEvents(WriteRetriableErrorEvent.class, event -> {
+            writeStatistics.retry();
+            logger.debug("Write failed, retrying in {} ms: {}", event.getRetryInterval(),
+                    event.getThrowable().getMessage());
+        });
+        createdWriteAPI.listenEvents(WriteErrorEvent.class, event -> {
+            writeStatistics.error();
+            logger.warn("Write failed: {}", event.getThrowable().getMessage());
+        });
+        createdWriteAPI.listenEvents(BackpressureEvent.class, event -> {
+            writeStatistics.error();
+            logger.warn("Write buffer is full, dropping points: {}", event.getReason());
+        });
+        return createdWriteAPI;
+    }
+
+    private static long countLines(@Nullable String lineProtocol) {
+        if (lineProtocol == null || lineProtocol.isEmpty()) {
+            return 0;
+        }
+        return lineProtocol.chars().filter(c -> c == '\n').count() + 1;
+    }
+
     /**
      * Disconnect from InfluxDB server
      */
     @Override
     public void disconnect() {
+        final WriteApi currentWriteAPI = writeAPI;
+        if (currentWriteAPI != null) {
+            // flushes the points that are still batched
+            currentWriteAPI.close();
+        }
+        writeAPI = null;
+        queryAPI = null;
         final InfluxDBClient currentClient = this.client;
         if (currentClient != null) {
             currentClient.close();
         }
         this.client = null;
+        logger.debug("Disconnected, {}", writeStatistics);
     }
 
     /**
@@ -143,6 +188,7 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         final WriteApi currentWriteAPI = writeAPI;
         if (currentWriteAPI != null) {
             currentWriteAPI.writePoint(convertPointToClientFormat(point));
+            writeStatistics.pointQueued();
         } else {
             logger.warn("Write point {} ignored due to writeAPI isn't present", point);
         }
@@ -227,4 +273,9 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
             return Collections.emptyMap();
         }
     }
+
+    @Override
+    public InfluxDBWriteStatistics getWriteStatistics() {
+        return writeStatistics;
+    }
 }
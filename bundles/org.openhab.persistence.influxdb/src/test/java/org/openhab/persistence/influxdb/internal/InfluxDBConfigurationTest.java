@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.*;
+
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBConfigurationTest {
+
+    @Test
+    public void batchingParametersShouldDefaultToClientDefaults() {
+        InfluxDBConfiguration configuration = ConfigurationTestHelper.createValidConfiguration();
+
+        assertThat(configuration.getBatchSize(), is(DEFAULT_BATCH_SIZE));
+        assertThat(configuration.getFlushInterval(), is(DEFAULT_FLUSH_INTERVAL));
+        assertThat(configuration.getJitterInterval(), is(DEFAULT_JITTER_INTERVAL));
+        assertThat(configuration.getRetryBufferLimit(), is(DEFAULT_RETRY_BUFFER_LIMIT));
+    }
+
+    @Test
+    public void batchingParametersShouldBeReadFromStringsAndNumbers() {
+        Map<String, Object> config = ConfigurationTestHelper.createValidConfigurationParameters();
+        config.put(BATCH_SIZE_PARAM, "500");
+        config.put(FLUSH_INTERVAL_PARAM, 200);
+        config.put(JITTER_INTERVAL_PARAM, "50");
+        config.put(RETRY_BUFFER_LIMIT_PARAM, 5000L);
+
+        InfluxDBConfiguration configuration = new InfluxDBConfiguration(config);
+
+        assertThat(configuration.getBatchSize(), is(500));
+        assertThat(configuration.getFlushInterval(), is(200));
+        assertThat(configuration.getJitterInterval(), is(50));
+        assertThat(configuration.getRetryBufferLimit(), is(5000));
+    }
+
+    @Test
+    public void invalidBatchingParametersShouldBeCorrected() {
+        Map<String, Object> config = ConfigurationTestHelper.createValidConfigurationParameters();
+        config.put(BATCH_SIZE_PARAM, "2000");
+        config.put(FLUSH_INTERVAL_PARAM, "abc");
+        config.put(JITTER_INTERVAL_PARAM, -1);
+        config.put(RETRY_BUFFER_LIMIT_PARAM, 100);
+
+        InfluxDBConfiguration configuration = new InfluxDBConfiguration(config);
+
+        assertThat(configuration.getFlushInterval(), is(DEFAULT_FLUSH_INTERVAL));
+        assertThat(configuration.getJitterInterval(), is(0));
+        assertThat("Retry buffer must hold at least one batch", configuration.getRetryBufferLimit(), is(2000));
+    }
+}
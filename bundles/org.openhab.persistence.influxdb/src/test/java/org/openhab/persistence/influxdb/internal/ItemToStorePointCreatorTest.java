@@ -97,6 +97,7 @@ public class ItemToStorePointCreatorTest {
         assertThat(point.getTags(), hasEntry(InfluxDBConstants.TAG_CATEGORY_NAME, "categoryValue"));
 
         when(influxDBConfiguration.isAddCategoryTag()).thenReturn(false);
+        instance.invalidateTags(item.getName());
         point = instance.convert(item, null);
         assertThat(point.getTags(), not(hasKey(InfluxDBConstants.TAG_CATEGORY_NAME)));
     }
@@ -110,6 +111,7 @@ public class ItemToStorePointCreatorTest {
         assertThat(point.getTags(), hasEntry(InfluxDBConstants.TAG_TYPE_NAME, "Number"));
 
         when(influxDBConfiguration.isAddTypeTag()).thenReturn(false);
+        instance.invalidateTags(item.getName());
         point = instance.convert(item, null);
         assertThat(point.getTags(), not(hasKey(InfluxDBConstants.TAG_TYPE_NAME)));
     }
@@ -124,6 +126,7 @@ public class ItemToStorePointCreatorTest {
         assertThat(point.getTags(), hasEntry(InfluxDBConstants.TAG_LABEL_NAME, "ItemLabel"));
 
         when(influxDBConfiguration.isAddLabelTag()).thenReturn(false);
+        instance.invalidateTags(item.getName());
         point = instance.convert(item, null);
         assertThat(point.getTags(), not(hasKey(InfluxDBConstants.TAG_LABEL_NAME)));
     }
@@ -140,4 +143,22 @@ public class ItemToStorePointCreatorTest {
         assertThat(point.getTags(), hasEntry("key1", "val1"));
         assertThat(point.getTags(), hasEntry("key2", "val2"));
     }
+
+    @Test
+    public void shouldReuseTagsUntilInvalidated() {
+        NumberItem item = ItemTestHelper.createNumberItem("myitem", 5);
+        MetadataKey metadataKey = new MetadataKey(InfluxDBPersistenceService.SERVICE_NAME, item.getName());
+
+        when(metadataRegistry.get(metadataKey)).thenReturn(new Metadata(metadataKey, "", Map.of("key1", "val1")));
+        InfluxPoint point = instance.convert(item, null);
+        assertThat(point.getTags(), hasEntry("key1", "val1"));
+
+        when(metadataRegistry.get(metadataKey)).thenReturn(new Metadata(metadataKey, "", Map.of("key1", "val2")));
+        point = instance.convert(item, null);
+        assertThat(point.getTags(), hasEntry("key1", "val1"));
+
+        instance.invalidateTags(item.getName());
+        point = instance.convert(item, null);
+        assertThat(point.getTags(), hasEntry("key1", "val2"));
+    }
 }
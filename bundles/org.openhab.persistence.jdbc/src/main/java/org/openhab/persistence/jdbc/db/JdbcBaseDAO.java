@@ -13,17 +13,25 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.dbutils.QueryRunner;
 import org.knowm.yank.Yank;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -46,6 +54,7 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.model.AggregationFunction;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.openhab.persistence.jdbc.model.JdbcHistoricItem;
@@ -79,6 +88,15 @@ public class JdbcBaseDAO {
     protected String sqlGetItemTables;
     protected String sqlCreateItemTable;
     protected String sqlInsertItemValue;
+    // groups rows into time buckets of #bucketSeconds# for downsampled queries
+    protected String sqlTimeBucket;
+    // placeholder for a time bound as string parameter
+    protected String sqlTimeParam = "?";
+    // replaces #tablePrimaryValue# in sqlInsertItemValue when the time is bound as parameter
+    protected String sqlInsertItemValueTimeParam = "?";
+
+    // rendered statements by table and shape; equal statement strings let drivers reuse prepared statements
+    protected final Map<String, String> sqlCache = new ConcurrentHashMap<>();
 
     /********
      * INIT *
@@ -138,6 +156,7 @@ public class JdbcBaseDAO {
         sqlGetItemTables = "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE' AND table_schema='#jdbcUriDatabaseName#' AND NOT table_name='#itemsManageTable#'";
         sqlCreateItemTable = "CREATE TABLE IF NOT EXISTS #tableName# (time #tablePrimaryKey# NOT NULL, value #dbType#, PRIMARY KEY(time))";
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, ? ) ON DUPLICATE KEY UPDATE VALUE= ?";
+        sqlTimeBucket = "FLOOR(UNIX_TIMESTAMP(time) / #bucketSeconds#)";
     }
 
     /**
@@ -238,6 +257,20 @@ public class JdbcBaseDAO {
         // databaseProps.setProperty("validationTimeout",""+validationTimeout);
     }
 
+    /**
+     * Sets the data source properties that make the driver prepare statements on the database server.
+     * Does nothing for drivers that don't need such properties.
+     */
+    public void enableServerPreparedStatements() {
+    }
+
+    /**
+     * Sets the data source properties that make the driver honor the fetch size of streamed queries.
+     * Does nothing for drivers that don't need such properties.
+     */
+    public void enableCursorFetch() {
+    }
+
     public void initAfterFirstDbConnection() {
         logger.debug("JDBC::initAfterFirstDbConnection: Initializing step, after db is connected.");
         // Initialize sqlTypes, depending on DB version for example
@@ -321,19 +354,81 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, ItemVO vo) {
         ItemVO storedVO = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue(), storedVO.getValue() };
+        String sql = cachedInsertItemValueProvider(storedVO, sqlTypes.get("tablePrimaryValue"));
+        // all parameters are the value (e.g. for upserts)
+        Object[] params = new Object[countParams(sql)];
+        Arrays.fill(params, storedVO.getValue());
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
         Yank.execute(sql, params);
     }
 
+    /**
+     * Converts the current state of an item into a value that can be written later on by
+     * {@link #doStoreItemValues(List)}. The time of the value is taken now from the clock of the openHAB host,
+     * because the database can't know when the value was persisted. Values written by
+     * {@link #doStoreItemValue(Item, ItemVO)} get the time of the database host instead.
+     */
+    public ItemVO doPrepareItemValue(Item item, ItemVO vo) {
+        ItemVO storedVO = storeItemValueProvider(item, vo);
+        storedVO.setTime(new Date());
+        return storedVO;
+    }
+
+    /**
+     * Writes prepared values as JDBC batches, one batch per item table, in a single transaction.
+     * If the transaction fails, the values are written one by one so that a single bad row does not
+     * discard the whole batch.
+     *
+     * @return the number of values that have been written
+     */
+    public int doStoreItemValues(List<ItemVO> vol) throws SQLException {
+        Map<String, List<ItemVO>> tables = new LinkedHashMap<>();
+        for (ItemVO vo : vol) {
+            tables.computeIfAbsent(vo.getTableName(), k -> new ArrayList<>()).add(vo);
+        }
+        QueryRunner runner = new QueryRunner();
+        try (Connection con = Yank.getDefaultConnectionPool().getConnection()) {
+            boolean autoCommit = con.getAutoCommit();
+            try {
+                con.setAutoCommit(false);
+                for (List<ItemVO> tvol : tables.values()) {
+                    String sql = cachedInsertItemValueProvider(tvol.get(0), sqlInsertItemValueTimeParam);
+                    logger.debug("JDBC::doStoreItemValues sql={} values={}", sql, tvol.size());
+                    runner.batch(con, sql, storeItemValuesParams(sql, tvol));
+                }
+                con.commit();
+                return vol.size();
+            } catch (SQLException e) {
+                con.rollback();
+                logger.warn("JDBC::doStoreItemValues: batch of {} values failed, writing them one by one: {}",
+                        vol.size(), e.getMessage());
+                con.setAutoCommit(true);
+                int stored = 0;
+                for (List<ItemVO> tvol : tables.values()) {
+                    String sql = cachedInsertItemValueProvider(tvol.get(0), sqlInsertItemValueTimeParam);
+                    for (Object[] params : storeItemValuesParams(sql, tvol)) {
+                        try {
+                            runner.update(con, sql, params);
+                            stored++;
+                        } catch (SQLException ex) {
+                            logger.warn("JDBC::doStoreItemValues: could not store value in table '{}': {}",
+                                    tvol.get(0).getTableName(), ex.getMessage());
+                        }
+                    }
+                }
+                return stored;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
-        logger.debug("JDBC::doGetHistItemFilterQuery sql={}", sql);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+        String sql = cachedHistItemFilterQueryProvider(filter, numberDecimalcount, table, name);
+        Object[] params = histItemFilterQueryParams(filter, timeZone);
+        logger.debug("JDBC::doGetHistItemFilterQuery sql={} params={}", sql, Arrays.toString(params));
+        List<Object[]> m = Yank.queryObjectArrays(sql, params);
 
         List<HistoricItem> items = new ArrayList<>();
         for (int i = 0; i < m.size(); i++) {
@@ -342,13 +437,72 @@ public class JdbcBaseDAO {
         return items;
     }
 
+    /**
+     * Same as {@link #doGetHistItemFilterQuery}, but the rows are fetched from a forward-only cursor and converted
+     * while the result is iterated.
+     *
+     * @param fetchSize number of rows the driver fetches from the database at once
+     */
+    public Iterable<HistoricItem> doGetHistItemFilterCursor(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, String name, ZoneId timeZone, int fetchSize) {
+        String sql = cachedHistItemFilterQueryProvider(filter, numberDecimalcount, table, name);
+        Object[] params = histItemFilterQueryParams(filter, timeZone);
+        logger.debug("JDBC::doGetHistItemFilterCursor sql={} params={}", sql, Arrays.toString(params));
+        return new JdbcHistoricItemIterable(this, item, sql, params, fetchSize);
+    }
+
+    /**
+     * Queries a downsampled history: the rows are grouped into buckets of the given width and the database
+     * returns one value per bucket, combined by the given function. Values are rounded to numberDecimalcount
+     * decimals like the values of {@link #doGetHistItemFilterQuery}.
+     */
+    public List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, ZoneId timeZone, long bucketSeconds, AggregationFunction function) {
+        String sql = histItemAggregateQueryProvider(filter, table, bucketSeconds, function);
+        Object[] params = histItemFilterQueryParams(filter, timeZone);
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={} params={}", sql, Arrays.toString(params));
+        List<Object[]> m = Yank.queryObjectArrays(sql, params);
+
+        List<HistoricItem> items = new ArrayList<>();
+        for (int i = 0; i < m.size(); i++) {
+            Object v = m.get(i)[1];
+            if (v == null) {
+                continue;
+            }
+            // aggregates may have another type than the column, e.g. AVG of an INT column
+            State state;
+            if (v instanceof Number) {
+                BigDecimal value = new BigDecimal(v.toString());
+                if (numberDecimalcount > -1) {
+                    value = value.setScale(numberDecimalcount, RoundingMode.HALF_UP);
+                }
+                state = new DecimalType(value);
+            } else {
+                state = getState(item, v);
+            }
+            items.add(new JdbcHistoricItem(item.getName(), state, objectAsDate(m.get(i)[0])));
+        }
+        return items;
+    }
+
     /*************
      * Providers *
      *************/
     static final DateTimeFormatter JDBC_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    private String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
-            String simpleName, ZoneId timeZone) {
+    private String cachedHistItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName) {
+        return sqlCache.computeIfAbsent(histItemFilterQueryKey(filter, numberDecimalcount, table, simpleName),
+                k -> histItemFilterQueryProvider(filter, numberDecimalcount, table, simpleName));
+    }
+
+    /**
+     * Builds the history query for the shape of the given filter. Times, offset and limit are bound as
+     * parameters by {@link #histItemFilterQueryParams(FilterCriteria, ZoneId)}, so the query string only
+     * depends on {@link #histItemFilterQueryKey(FilterCriteria, int, String, String)} and can be cached.
+     */
+    protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName) {
         logger.debug(
                 "JDBC::getHistItemFilterQueryProvider filter = {}, numberDecimalcount = {}, table = {}, simpleName = {}",
                 filter.toString(), numberDecimalcount, table, simpleName);
@@ -356,17 +510,15 @@ public class JdbcBaseDAO {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME>" + sqlTimeParam;
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME<" + sqlTimeParam;
         }
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC ";
         if (filter.getPageSize() != 0x7fffffff) {
-            filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
+            filterString += " LIMIT ?,?";
         }
         // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT 0,1
         // rounding HALF UP
@@ -380,6 +532,59 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, String table, long bucketSeconds,
+            AggregationFunction function) {
+        String filterString = "";
+        if (filter.getBeginDate() != null) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += " TIME>" + sqlTimeParam;
+        }
+        if (filter.getEndDate() != null) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += " TIME<" + sqlTimeParam;
+        }
+        String bucket = sqlTimeBucket.replace("#bucketSeconds#", String.valueOf(bucketSeconds));
+        String order = filter.getOrdering() == Ordering.ASCENDING ? " ASC" : " DESC";
+        String queryString;
+        if (function == AggregationFunction.LAST) {
+            queryString = "SELECT time, value FROM " + table + " WHERE time IN (SELECT MAX(time) FROM " + table
+                    + filterString + " GROUP BY " + bucket + ") ORDER BY time" + order;
+        } else {
+            queryString = "SELECT MIN(time), " + function + "(value) FROM " + table + filterString + " GROUP BY "
+                    + bucket + " ORDER BY MIN(time)" + order;
+        }
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    protected String histItemFilterQueryKey(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName) {
+        return "SELECT:" + table + ":" + (filter.getBeginDate() != null) + ":" + (filter.getEndDate() != null) + ":"
+                + filter.getOrdering() + ":" + (filter.getPageSize() != 0x7fffffff) + ":"
+                + ("NUMBERITEM".equalsIgnoreCase(simpleName) ? numberDecimalcount : -1);
+    }
+
+    protected Object[] histItemFilterQueryParams(FilterCriteria filter, ZoneId timeZone) {
+        List<Object> params = new ArrayList<>(4);
+        if (filter.getBeginDate() != null) {
+            params.add(JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone)));
+        }
+        if (filter.getEndDate() != null) {
+            params.add(JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone)));
+        }
+        if (filter.getPageSize() != 0x7fffffff) {
+            params.addAll(histItemFilterPageParams(filter));
+        }
+        return params.toArray();
+    }
+
+    /**
+     * @return the values for the paging placeholders of the history query, in the order they appear
+     */
+    protected List<Object> histItemFilterPageParams(FilterCriteria filter) {
+        return List.of(filter.getPageNumber() * filter.getPageSize(), filter.getPageSize());
+    }
+
     private String updateItemTableNamesProvider(List<ItemVO> namesList) {
         logger.debug("JDBC::updateItemTableNamesProvider namesList.size = {}", namesList.size());
         String queryString = "";
@@ -391,6 +596,46 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    private String cachedInsertItemValueProvider(ItemVO vo, String primaryValue) {
+        return sqlCache.computeIfAbsent("INSERT:" + vo.getTableName() + ":" + vo.getDbType() + ":" + primaryValue,
+                k -> insertItemValueProvider(vo, primaryValue));
+    }
+
+    /**
+     * Renders {@link #sqlInsertItemValue} for a table.
+     *
+     * @param primaryValue expression used for the time column, either the database time or a parameter
+     */
+    protected String insertItemValueProvider(ItemVO vo, String primaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), primaryValue });
+    }
+
+    private Object[][] storeItemValuesParams(String sql, List<ItemVO> vol) {
+        // the time is always the first parameter, all following parameters are the value (e.g. for upserts)
+        int paramCount = countParams(sql);
+        Object[][] params = new Object[vol.size()][];
+        for (int i = 0; i < vol.size(); i++) {
+            ItemVO vo = vol.get(i);
+            Object[] row = new Object[paramCount];
+            row[0] = storeItemValueTime(vo);
+            for (int j = 1; j < paramCount; j++) {
+                row[j] = vo.getValue();
+            }
+            params[i] = row;
+        }
+        return params;
+    }
+
+    protected Object storeItemValueTime(ItemVO vo) {
+        return new Timestamp(vo.getTime().getTime());
+    }
+
+    private static int countParams(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
     protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -12,19 +12,13 @@
  */
 package org.openhab.persistence.jdbc.db;
 
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
-import org.openhab.core.persistence.HistoricItem;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
-import org.openhab.persistence.jdbc.model.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +53,7 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         // Prevent error against duplicate time value (seldom): No powerful Merge found:
         // http://www.codeproject.com/Questions/162627/how-to-insert-new-record-in-my-table-if-not-exists
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        sqlTimeBucket = "{fn TIMESTAMPDIFF(SQL_TSI_SECOND, TIMESTAMP('1970-01-01 00:00:00'), time)} / #bucketSeconds#";
     }
 
     private void initSqlTypes() {
@@ -144,40 +139,19 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         Yank.execute(sql, null);
     }
 
+    /****************************
+     * SQL generation Providers *
+     ****************************/
     @Override
-    public void doStoreItemValue(Item item, ItemVO vo) {
-        vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+    protected String insertItemValueProvider(ItemVO vo, String primaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
                 new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName().toUpperCase(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { vo.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
-        Yank.execute(sql, params);
+                new String[] { vo.getTableName().toUpperCase(), vo.getDbType(), primaryValue });
     }
 
     @Override
-    public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
-            String table, String name, ZoneId timeZone) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
-
-        logger.debug("JDBC::doGetHistItemFilterQuery got Array length={}", m.size());
-
-        List<HistoricItem> items = new ArrayList<>();
-        for (int i = 0; i < m.size(); i++) {
-            logger.debug("JDBC::doGetHistItemFilterQuery 0='{}' 1='{}'", m.get(i)[0], m.get(i)[1]);
-            items.add(new JdbcHistoricItem(item.getName(), getState(item, m.get(i)[1]), objectAsDate(m.get(i)[0])));
-        }
-        return items;
-    }
-
-    /****************************
-     * SQL generation Providers *
-     ****************************/
-    static final DateTimeFormatter JDBC_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-    private String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
-            String simpleName, ZoneId timeZone) {
+    protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName) {
         logger.debug(
                 "JDBC::getHistItemFilterQueryProvider filter = {}, numberDecimalcount = {}, table = {}, simpleName = {}",
                 StringUtilsExt.filterToString(filter), numberDecimalcount, table, simpleName);
@@ -185,13 +159,11 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME>?";
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME<?";
         }
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC";
         if (filter.getPageSize() != 0x7fffffff) {
@@ -203,8 +175,7 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
             // filterString += " OFFSET " + filter.getPageSize() +" ROWS FETCH
             // FIRST||NEXT " + filter.getPageNumber() * filter.getPageSize() + "
             // ROWS ONLY";
-            filterString += " OFFSET " + filter.getPageSize() + " ROWS FETCH FIRST "
-                    + (filter.getPageNumber() * filter.getPageSize() + 1) + " ROWS ONLY";
+            filterString += " OFFSET ? ROWS FETCH FIRST ? ROWS ONLY";
         }
 
         // http://www.seemoredata.com/en/showthread.php?132-Round-function-in-Apache-Derby
@@ -231,6 +202,11 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         return queryString;
     }
 
+    @Override
+    protected List<Object> histItemFilterPageParams(FilterCriteria filter) {
+        return List.of(filter.getPageSize(), filter.getPageNumber() * filter.getPageSize() + 1);
+    }
+
     /*****************
      * H E L P E R S *
      *****************/
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import java.lang.ref.Cleaner;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.knowm.yank.Yank;
+import org.openhab.core.items.Item;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.model.JdbcHistoricItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lazily fetching result of a history query. Every iterator runs the query on its own connection using a
+ * forward-only cursor with the given fetch size and converts rows to {@link HistoricItem}s while iterating, so
+ * memory usage does not depend on the number of rows.
+ *
+ * The connection is returned to the pool as soon as the iterator is exhausted or fails. Iterators that are
+ * abandoned before reaching the end release their connection when they are garbage collected.
+ *
+ * If the query fails while iterating, {@link Iterator#hasNext()} throws an {@link IllegalStateException}, so that
+ * callers don't mistake a failed query for the end of the history.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistoricItemIterable implements Iterable<HistoricItem> {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcHistoricItemIterable.class);
+
+    private final JdbcBaseDAO dao;
+    private final Item item;
+    private final String sql;
+    private final Object[] params;
+    private final int fetchSize;
+
+    JdbcHistoricItemIterable(JdbcBaseDAO dao, Item item, String sql, Object[] params, int fetchSize) {
+        this.dao = dao;
+        this.item = item;
+        this.sql = sql;
+        this.params = params;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new Cursor();
+    }
+
+    /**
+     * Database resources of a cursor, kept apart from the cursor so that they can be closed by the cleaner.
+     */
+    private static class Resources implements Runnable {
+        private final Logger logger = LoggerFactory.getLogger(Resources.class);
+
+        private @Nullable Connection con;
+        private @Nullable PreparedStatement stmt;
+        private @Nullable ResultSet rs;
+        private boolean autoCommit = true;
+
+        @Override
+        public void run() {
+            try {
+                ResultSet rs = this.rs;
+                if (rs != null) {
+                    rs.close();
+                }
+                PreparedStatement stmt = this.stmt;
+                if (stmt != null) {
+                    stmt.close();
+                }
+                Connection con = this.con;
+                if (con != null) {
+                    // end the read-only transaction that is needed for cursor based fetching on some databases
+                    con.commit();
+                    con.setAutoCommit(autoCommit);
+                    con.close();
+                }
+            } catch (SQLException e) {
+                logger.debug("JDBC::JdbcHistoricItemIterable: closing cursor failed: {}", e.getMessage());
+            }
+            this.rs = null;
+            this.stmt = null;
+            this.con = null;
+        }
+    }
+
+    private class Cursor implements Iterator<HistoricItem> {
+        private final Resources resources = new Resources();
+        private final Cleaner.Cleanable cleanable = CLEANER.register(this, resources);
+        private @Nullable HistoricItem next;
+        private boolean opened = false;
+        private boolean done = false;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = fetch();
+            }
+            return next != null;
+        }
+
+        @Override
+        public HistoricItem next() {
+            HistoricItem result = hasNext() ? next : null;
+            if (result == null) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            return result;
+        }
+
+        private @Nullable HistoricItem fetch() {
+            try {
+                if (!opened) {
+                    opened = true;
+                    open();
+                }
+                ResultSet rs = resources.rs;
+                if (rs != null && rs.next()) {
+                    return new JdbcHistoricItem(item.getName(), dao.getState(item, rs.getObject(2)),
+                            dao.objectAsDate(rs.getObject(1)));
+                }
+            } catch (SQLException | RuntimeException e) {
+                done = true;
+                cleanable.clean();
+                throw new IllegalStateException(
+                        "JDBC::JdbcHistoricItemIterable: query for item '" + item.getName() + "' failed", e);
+            }
+            done = true;
+            cleanable.clean();
+            return null;
+        }
+
+        private void open() throws SQLException {
+            logger.debug("JDBC::JdbcHistoricItemIterable: sql={} fetchSize={}", sql, fetchSize);
+            Connection con = Yank.getDefaultConnectionPool().getConnection();
+            resources.con = con;
+            resources.autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            PreparedStatement stmt = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            resources.stmt = stmt;
+            stmt.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            resources.rs = stmt.executeQuery();
+        }
+    }
+}
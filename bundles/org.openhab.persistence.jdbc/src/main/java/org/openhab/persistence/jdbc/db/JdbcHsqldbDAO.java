@@ -13,7 +13,6 @@
 package org.openhab.persistence.jdbc.db;
 
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
@@ -54,6 +53,7 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
         sqlInsertItemValue = "MERGE INTO #tableName# "
                 + "USING (VALUES #tablePrimaryValue#, CAST( ? as #dbType#)) temp (TIME, VALUE) ON (#tableName#.TIME=temp.TIME) "
                 + "WHEN NOT MATCHED THEN INSERT (TIME, VALUE) VALUES (temp.TIME, temp.VALUE)";
+        sqlInsertItemValueTimeParam = "CAST( ? as TIMESTAMP)";
     }
 
     /**
@@ -100,20 +100,16 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
-    @Override
-    public void doStoreItemValue(Item item, ItemVO vo) {
-        vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" }, new String[] {
-                        vo.getTableName(), vo.getDbType(), vo.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { vo.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
-        Yank.execute(sql, params);
-    }
 
     /****************************
      * SQL generation Providers *
      ****************************/
+    @Override
+    protected String insertItemValueProvider(ItemVO vo, String primaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), vo.getTableName(), primaryValue });
+    }
 
     /*****************
      * H E L P E R S *
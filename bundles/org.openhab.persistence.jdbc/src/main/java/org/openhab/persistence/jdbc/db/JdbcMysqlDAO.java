@@ -73,6 +73,17 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
         databaseProps.setProperty("minimumIdle", "2");
     }
 
+    @Override
+    public void enableServerPreparedStatements() {
+        databaseProps.setProperty("dataSource.useServerPrepStmts", "true");
+    }
+
+    @Override
+    public void enableCursorFetch() {
+        // honor fetch size for streamed queries
+        databaseProps.setProperty("dataSource.useCursorFetch", "true");
+    }
+
     @Override
     public void initAfterFirstDbConnection() {
         logger.debug("JDBC::initAfterFirstDbConnection: Initializing step, after db is connected.");
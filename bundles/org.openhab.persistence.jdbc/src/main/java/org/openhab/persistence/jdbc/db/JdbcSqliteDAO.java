@@ -12,8 +12,10 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 import org.knowm.yank.Yank;
-import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
@@ -47,6 +49,7 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
         sqlIfTableExists = "SELECT name FROM sqlite_master WHERE type='table' AND name='#searchTable#'";
         sqlCreateItemsTableIfNot = "CREATE TABLE IF NOT EXISTS #itemsManageTable# (ItemId INTEGER PRIMARY KEY AUTOINCREMENT, #colname# #coltype# NOT NULL)";
         sqlInsertItemValue = "INSERT OR IGNORE INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        sqlTimeBucket = "CAST(strftime('%s', time) AS INTEGER) / #bucketSeconds#";
     }
 
     /**
@@ -89,16 +92,6 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
-    @Override
-    public void doStoreItemValue(Item item, ItemVO vo) {
-        vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { vo.getValue() };
-        logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
-        Yank.execute(sql, params);
-    }
 
     /****************************
      * SQL generation Providers *
@@ -107,6 +100,16 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
     /*****************
      * H E L P E R S *
      *****************/
+    private static final DateTimeFormatter SQLITE_TIME_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    /**
+     * SQLite has no timestamp type, bind the same local time string as produced by tablePrimaryValue.
+     */
+    @Override
+    protected Object storeItemValueTime(ItemVO vo) {
+        return SQLITE_TIME_FORMAT.format(vo.getTime().toInstant().atZone(ZoneId.systemDefault()));
+    }
 
     /******************************
      * public Getters and Setters *
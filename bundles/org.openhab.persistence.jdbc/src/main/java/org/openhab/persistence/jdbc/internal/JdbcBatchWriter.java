@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.persistence.jdbc.db.JdbcBaseDAO;
+import org.openhab.persistence.jdbc.model.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind pipeline for item values. Values are put into a bounded queue by the persistence thread and
+ * written by a dedicated writer thread as JDBC batches, one transaction per batch.
+ *
+ * A batch is flushed as soon as it reaches the configured maximum size or when the oldest value in it is older
+ * than the configured maximum latency. If the queue is full, new values are dropped and counted.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriter implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    private static final long STOP_TIMEOUT_MS = 30000;
+
+    private final JdbcBaseDAO dao;
+    private final BlockingQueue<ItemVO> queue;
+    private final int maxBatchSize;
+    private final long maxLatency;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running = false;
+    private @Nullable Thread thread;
+
+    public JdbcBatchWriter(JdbcBaseDAO dao, int queueSize, int maxBatchSize, long maxLatency) {
+        this.dao = dao;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatency = maxLatency;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        logger.debug("JDBC::JdbcBatchWriter: starting, queueSize={} maxBatchSize={} maxLatency={} ms",
+                queue.remainingCapacity(), maxBatchSize, maxLatency);
+        running = true;
+        Thread t = new Thread(this, "OH-jdbc-batchwriter");
+        t.setDaemon(true);
+        t.start();
+        thread = t;
+    }
+
+    /**
+     * Stops the writer thread after all queued values have been written.
+     */
+    public synchronized void stop() {
+        Thread t = thread;
+        if (t == null) {
+            return;
+        }
+        running = false;
+        try {
+            t.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            logger.warn("JDBC::JdbcBatchWriter: writer did not finish within {} ms, {} values not written",
+                    STOP_TIMEOUT_MS, queue.size());
+        }
+        thread = null;
+        logger.debug("JDBC::JdbcBatchWriter: stopped, stored={} dropped={} failed={}", storedCount.get(),
+                droppedCount.get(), failedCount.get());
+    }
+
+    /**
+     * Queues a prepared value for writing.
+     *
+     * @param vo value prepared by {@link JdbcBaseDAO#doPrepareItemValue}
+     * @return false if the queue is full and the value has been dropped
+     */
+    public boolean enqueue(ItemVO vo) {
+        if (queue.offer(vo)) {
+            return true;
+        }
+        long dropped = droppedCount.incrementAndGet();
+        if (dropped == 1 || dropped % 1000 == 0) {
+            logger.warn("JDBC::JdbcBatchWriter: write queue is full, dropped value for table '{}' ({} dropped so far)",
+                    vo.getTableName(), dropped);
+        }
+        return false;
+    }
+
+    @Override
+    public void run() {
+        List<ItemVO> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                ItemVO first = queue.poll(maxLatency, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + maxLatency;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    ItemVO next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            flush(batch);
+        }
+        // write everything that is still queued before the thread ends
+        while (!queue.isEmpty()) {
+            queue.drainTo(batch, maxBatchSize);
+            flush(batch);
+        }
+    }
+
+    private void flush(List<ItemVO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        try {
+            int stored = dao.doStoreItemValues(batch);
+            storedCount.addAndGet(stored);
+            failedCount.addAndGet(batch.size() - stored);
+        } catch (SQLException | RuntimeException e) {
+            failedCount.addAndGet(batch.size());
+            logger.warn("JDBC::JdbcBatchWriter: could not write batch of {} values: {}", batch.size(),
+                    e.getMessage());
+        }
+        logger.debug("JDBC::JdbcBatchWriter: wrote batch of {} values in {} ms, queueDepth={} dropped={}",
+                batch.size(), System.currentTimeMillis() - timerStart, queue.size(), droppedCount.get());
+        batch.clear();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
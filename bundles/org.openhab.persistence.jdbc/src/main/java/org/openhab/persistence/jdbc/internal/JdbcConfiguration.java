@@ -13,15 +13,18 @@
 package org.openhab.persistence.jdbc.internal;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.openhab.persistence.jdbc.db.JdbcBaseDAO;
+import org.openhab.persistence.jdbc.model.AggregationFunction;
 import org.openhab.persistence.jdbc.utils.MovingAverage;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
@@ -60,6 +63,19 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private boolean enableBatchWrite = false;
+    private int batchQueueSize = 10000;
+    private int batchMaxSize = 500;
+    private int batchMaxLatency = 1000;
+
+    private boolean serverPreparedStatements = false;
+
+    private int queryFetchSize = 0;
+
+    private int queryMaxPoints = 0;
+    private AggregationFunction queryAggregation = AggregationFunction.AVG;
+    private Set<String> queryDownsampleItems = Collections.emptySet();
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -173,6 +189,71 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bw = (String) configuration.get("enableBatchWrite");
+        if (bw != null && !bw.isBlank()) {
+            enableBatchWrite = Boolean.parseBoolean(bw);
+            logger.debug("JDBC::updateConfig: enableBatchWrite={}", enableBatchWrite);
+        }
+
+        String bq = (String) configuration.get("batchQueueSize");
+        if (bq != null && !bq.isBlank() && isNumericPattern.matcher(bq).matches()) {
+            batchQueueSize = Math.max(1, Integer.parseInt(bq));
+            logger.debug("JDBC::updateConfig: batchQueueSize={}", batchQueueSize);
+        }
+
+        String bs = (String) configuration.get("batchMaxSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchMaxSize = Math.max(1, Integer.parseInt(bs));
+            logger.debug("JDBC::updateConfig: batchMaxSize={}", batchMaxSize);
+        }
+
+        String bl = (String) configuration.get("batchMaxLatency");
+        if (bl != null && !bl.isBlank() && isNumericPattern.matcher(bl).matches()) {
+            batchMaxLatency = Math.max(1, Integer.parseInt(bl));
+            logger.debug("JDBC::updateConfig: batchMaxLatency={}", batchMaxLatency);
+        }
+
+        String sp = (String) configuration.get("serverPreparedStatements");
+        if (sp != null && !sp.isBlank()) {
+            serverPreparedStatements = Boolean.parseBoolean(sp);
+            logger.debug("JDBC::updateConfig: serverPreparedStatements={}", serverPreparedStatements);
+        }
+        if (serverPreparedStatements) {
+            dBDAO.enableServerPreparedStatements();
+        }
+
+        String qf = (String) configuration.get("queryFetchSize");
+        if (qf != null && !qf.isBlank() && isNumericPattern.matcher(qf).matches()) {
+            queryFetchSize = Integer.parseInt(qf);
+            logger.debug("JDBC::updateConfig: queryFetchSize={}", queryFetchSize);
+        }
+        if (queryFetchSize > 0) {
+            dBDAO.enableCursorFetch();
+        }
+
+        String mp = (String) configuration.get("queryMaxPoints");
+        if (mp != null && !mp.isBlank() && isNumericPattern.matcher(mp).matches()) {
+            queryMaxPoints = Integer.parseInt(mp);
+            logger.debug("JDBC::updateConfig: queryMaxPoints={}", queryMaxPoints);
+        }
+
+        String qa = (String) configuration.get("queryAggregation");
+        if (qa != null && !qa.isBlank()) {
+            try {
+                queryAggregation = AggregationFunction.valueOf(qa.trim().toUpperCase());
+                logger.debug("JDBC::updateConfig: queryAggregation={}", queryAggregation);
+            } catch (IllegalArgumentException e) {
+                logger.warn("JDBC::updateConfig: unknown queryAggregation '{}', using {}", qa, queryAggregation);
+            }
+        }
+
+        String di = (String) configuration.get("queryDownsampleItems");
+        if (di != null && !di.isBlank()) {
+            queryDownsampleItems = Arrays.stream(di.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            logger.debug("JDBC::updateConfig: queryDownsampleItems={}", queryDownsampleItems);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -350,6 +431,38 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public boolean getEnableBatchWrite() {
+        return enableBatchWrite;
+    }
+
+    public int getBatchQueueSize() {
+        return batchQueueSize;
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    public int getBatchMaxLatency() {
+        return batchMaxLatency;
+    }
+
+    public int getQueryFetchSize() {
+        return queryFetchSize;
+    }
+
+    public int getQueryMaxPoints() {
+        return queryMaxPoints;
+    }
+
+    public AggregationFunction getQueryAggregation() {
+        return queryAggregation;
+    }
+
+    public Set<String> getQueryDownsampleItems() {
+        return queryDownsampleItems;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
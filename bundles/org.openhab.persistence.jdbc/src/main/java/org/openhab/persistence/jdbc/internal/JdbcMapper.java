@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -22,7 +24,9 @@ import java.util.stream.Collectors;
 import org.knowm.yank.Yank;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
 import org.openhab.persistence.jdbc.model.ItemVO;
@@ -46,6 +50,7 @@ public class JdbcMapper {
     protected boolean initialized = false;
     protected JdbcConfiguration conf = null;
     protected final Map<String, String> sqlTables = new HashMap<>();
+    protected JdbcBatchWriter batchWriter = null;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
     private static final String ITEM_NAME_PATTERN = "[^a-zA-Z_0-9\\-]";
@@ -153,21 +158,37 @@ public class JdbcMapper {
             return item;
         }
         long timerStart = System.currentTimeMillis();
-        conf.getDBDAO().doStoreItemValue(item, new ItemVO(tableName, null));
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            writer.enqueue(conf.getDBDAO().doPrepareItemValue(item, new ItemVO(tableName, null)));
+        } else {
+            conf.getDBDAO().doStoreItemValue(item, new ItemVO(tableName, null));
+        }
         logTime("storeItemValue", timerStart, System.currentTimeMillis());
         errCnt = 0;
         return item;
     }
 
-    public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
+    public Iterable<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
                 "JDBC::getHistItemFilterQuery filter='{}' numberDecimalcount='{}' table='{}' item='{}' itemName='{}'",
                 (filter != null), numberDecimalcount, table, item, item.getName());
         if (table != null) {
             long timerStart = System.currentTimeMillis();
-            List<HistoricItem> r = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
-                    item.getName(), timeZoneProvider.getTimeZone());
+            Iterable<HistoricItem> r;
+            long bucketSeconds = getAggregationBucketSeconds(filter, item);
+            if (bucketSeconds > 0) {
+                r = conf.getDBDAO().doGetHistItemAggregateQuery(item, filter, numberDecimalcount, table,
+                        timeZoneProvider.getTimeZone(), bucketSeconds, conf.getQueryAggregation());
+            } else if (conf.getQueryFetchSize() > 0 && filter.getPageSize() == Integer.MAX_VALUE) {
+                // unpaged queries may return any number of rows, fetch them while iterating
+                r = conf.getDBDAO().doGetHistItemFilterCursor(item, filter, numberDecimalcount, table,
+                        item.getName(), timeZoneProvider.getTimeZone(), conf.getQueryFetchSize());
+            } else {
+                r = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
+                        item.getName(), timeZoneProvider.getTimeZone());
+            }
             logTime("insertItemValue", timerStart, System.currentTimeMillis());
             return r;
         } else {
@@ -176,6 +197,30 @@ public class JdbcMapper {
         return null;
     }
 
+    /**
+     * Returns the bucket width for a downsampled query, so that the database returns at most
+     * {@link JdbcConfiguration#getQueryMaxPoints()} values, or 0 if the query should return raw values.
+     * Only Number items listed in {@link JdbcConfiguration#getQueryDownsampleItems()} are downsampled, and only for
+     * ascending, unpaged queries of a closed time range without a state filter, which is how charts query. Persistence
+     * extensions like {@code maximumSince} or {@code historicState} don't set an end date or a descending order, so
+     * they always get raw values.
+     */
+    private long getAggregationBucketSeconds(FilterCriteria filter, Item item) {
+        int maxPoints = conf.getQueryMaxPoints();
+        ZonedDateTime begin = filter.getBeginDate();
+        ZonedDateTime end = filter.getEndDate();
+        if (maxPoints <= 0 || !(item instanceof NumberItem)
+                || !conf.getQueryDownsampleItems().contains(item.getName()) || begin == null || end == null
+                || filter.getState() != null || filter.getOrdering() != Ordering.ASCENDING
+                || filter.getPageNumber() != 0 || filter.getPageSize() != Integer.MAX_VALUE) {
+            return 0;
+        }
+        long rangeSeconds = Duration.between(begin, end).getSeconds();
+        long bucketSeconds = (rangeSeconds + maxPoints - 1) / maxPoints;
+        // buckets of a single second would not reduce anything
+        return bucketSeconds > 1 ? bucketSeconds : 0;
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
@@ -201,6 +246,27 @@ public class JdbcMapper {
         conf.setDbConnected(false);
     }
 
+    protected void startBatchWriter() {
+        stopBatchWriter();
+        if (conf.getEnableBatchWrite()) {
+            JdbcBatchWriter writer = new JdbcBatchWriter(conf.getDBDAO(), conf.getBatchQueueSize(),
+                    conf.getBatchMaxSize(), conf.getBatchMaxLatency());
+            writer.start();
+            batchWriter = writer;
+        }
+    }
+
+    protected void stopBatchWriter() {
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            batchWriter = null;
+            writer.stop();
+            logger.info("JDBC::stopBatchWriter: stored={} dropped={} failed={} queueDepth={}",
+                    writer.getStoredCount(), writer.getDroppedCount(), writer.getFailedCount(),
+                    writer.getQueueDepth());
+        }
+    }
+
     protected boolean checkDBAccessability() {
         // Check if connection is valid
         if (initialized) {
@@ -104,6 +104,7 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        stopBatchWriter();
         initialized = false;
     }
 
@@ -202,10 +203,15 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
         }
 
         long timerStart = System.currentTimeMillis();
-        List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        Iterable<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
 
-        logger.debug("JDBC::query: query for {} returned {} rows in {} ms", item.getName(), items.size(),
-                System.currentTimeMillis() - timerStart);
+        if (items instanceof List) {
+            logger.debug("JDBC::query: query for {} returned {} rows in {} ms", item.getName(),
+                    ((List<?>) items).size(), System.currentTimeMillis() - timerStart);
+        } else {
+            logger.debug("JDBC::query: query for {} prepared in {} ms, rows are fetched while iterating",
+                    item.getName(), System.currentTimeMillis() - timerStart);
+        }
 
         // Success
         errCnt = 0;
@@ -215,9 +221,11 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        stopBatchWriter();
         conf = new JdbcConfiguration(configuration);
         if (conf.valid && checkDBAccessability()) {
             checkDBSchema();
+            startBatchWriter();
             // connection has been established ... initialization completed!
             initialized = true;
         } else {
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.model;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Functions that combine all values of a time bucket into one value for downsampled queries.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public enum AggregationFunction {
+    AVG,
+    MIN,
+    MAX,
+    /** value with the latest time in the bucket */
+    LAST;
+}
@@ -32,6 +32,11 @@ public class JpaConfiguration {
     private static final String CFG_USERNAME = "user";
     private static final String CFG_PASSWORD = "password";
     private static final String CFG_SYNCMAPPING = "syncmappings";
+    private static final String CFG_BATCH_INTERVAL = "batchInterval";
+    private static final String CFG_BATCH_SIZE = "batchSize";
+
+    private static final int DEFAULT_BATCH_INTERVAL = 0;
+    private static final int DEFAULT_BATCH_SIZE = 100;
 
     public static boolean isInitialized = false;
 
@@ -40,6 +45,8 @@ public class JpaConfiguration {
     public final String dbUserName;
     public final String dbPassword;
     public final String dbSyncMapping;
+    public final int batchInterval;
+    public final int batchSize;
 
     public JpaConfiguration(final Map<String, Object> properties) {
         logger.debug("Update config...");
@@ -77,7 +84,25 @@ public class JpaConfiguration {
         }
         dbSyncMapping = (String) properties.get(CFG_SYNCMAPPING);
 
+        batchInterval = getIntProperty(properties, CFG_BATCH_INTERVAL, DEFAULT_BATCH_INTERVAL);
+        logger.debug("batchInterval: {}", batchInterval);
+        batchSize = Math.max(1, getIntProperty(properties, CFG_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+        logger.debug("batchSize: {}", batchSize);
+
         isInitialized = true;
         logger.debug("Update config... done");
     }
+
+    private int getIntProperty(final Map<String, Object> properties, String key, int defaultValue) {
+        Object value = properties.get(key);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring illegal value '{}' for {} in jpa.cfg, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
 }
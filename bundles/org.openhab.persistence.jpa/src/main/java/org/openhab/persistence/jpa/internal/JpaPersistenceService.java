@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.jpa.internal;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -19,14 +20,19 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -51,6 +57,9 @@ import org.slf4j.LoggerFactory;
 /**
  * JPA based implementation of QueryablePersistenceService.
  *
+ * All items are written by one long-lived {@link EntityManager}. With a batch interval configured, items are
+ * buffered and many items are persisted in one transaction, using JDBC statement batching.
+ *
  * @author Manfred Bergmann - Initial contribution
  */
 @NonNullByDefault
@@ -65,6 +74,17 @@ public class JpaPersistenceService implements QueryablePersistenceService {
 
     private @NonNullByDefault({}) JpaConfiguration config;
 
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
+
+    /** guards the writer entity manager */
+    private final Object writeLock = new Object();
+    private @Nullable EntityManager writerEntityManager;
+
+    private final List<JpaPersistentItem> pendingItems = new ArrayList<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private @Nullable ScheduledFuture<?> flushJob;
+
     @Activate
     public JpaPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -86,6 +106,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     public void activate(BundleContext context, Map<String, Object> properties) {
         logger.debug("Activating jpa persistence service");
         config = new JpaConfiguration(properties);
+        if (config.batchInterval > 0) {
+            logger.debug("Persisting items in batches every {} ms or after {} items", config.batchInterval,
+                    config.batchSize);
+            flushJob = scheduler.scheduleWithFixedDelay(this::flushPendingItems, config.batchInterval,
+                    config.batchInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -94,6 +120,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating jpa persistence service");
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        flushPendingItems();
         closeEntityManagerFactory();
     }
 
@@ -142,22 +174,109 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
-        EntityManager em = getEntityManagerFactory().createEntityManager();
+        if (config.batchInterval <= 0) {
+            persistItems(List.of(pItem));
+        } else {
+            int pending;
+            synchronized (pendingItems) {
+                pendingItems.add(pItem);
+                pending = pendingItems.size();
+            }
+            if (pending >= config.batchSize && flushScheduled.compareAndSet(false, true)) {
+                scheduler.execute(() -> {
+                    flushScheduled.set(false);
+                    flushPendingItems();
+                });
+            }
+        }
+
+        logger.debug("Storing item...done");
+    }
+
+    /**
+     * Persists all buffered items
+     */
+    private void flushPendingItems() {
+        List<JpaPersistentItem> items;
+        synchronized (pendingItems) {
+            if (pendingItems.isEmpty()) {
+                return;
+            }
+            items = new ArrayList<>(pendingItems);
+            pendingItems.clear();
+        }
+        persistItems(items);
+    }
+
+    /**
+     * Persists the given items in one transaction. If that transaction fails, every item is persisted in a
+     * transaction of its own, so that a single failing item doesn't discard the others.
+     */
+    private void persistItems(List<JpaPersistentItem> items) {
+        synchronized (writeLock) {
+            if (items.size() == 1) {
+                persistInTransaction(items, true);
+            } else if (!persistInTransaction(items, false)) {
+                logger.debug("Persisting {} items one by one...", items.size());
+                int failed = 0;
+                for (JpaPersistentItem pItem : items) {
+                    if (!persistInTransaction(List.of(pItem), true)) {
+                        failed++;
+                    }
+                }
+                logger.debug("Persisting {} items one by one...done, {} failed", items.size(), failed);
+            }
+        }
+    }
+
+    /**
+     * @return true if the transaction has been committed
+     */
+    private boolean persistInTransaction(List<JpaPersistentItem> items, boolean logFailure) {
+        EntityManager em = getWriterEntityManager();
         try {
-            logger.debug("Persisting item...");
+            logger.debug("Persisting {} items...", items.size());
             // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
             em.getTransaction().begin();
-            em.persist(pItem);
+            for (JpaPersistentItem pItem : items) {
+                em.persist(pItem);
+            }
             em.getTransaction().commit();
-            logger.debug("Persisting item...done");
+            // the persisted items are not needed anymore, don't let the persistence context grow
+            em.clear();
+            logger.debug("Persisting {} items...done", items.size());
+            return true;
         } catch (Exception e) {
-            logger.error("Error on persisting item! Rolling back!", e);
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
+            if (logFailure) {
+                logger.error("Error on persisting {} items! Rolling back!", items.size(), e);
+            } else {
+                logger.debug("Error on persisting {} items, rolling back: {}", items.size(), e.getMessage());
+            }
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            closeWriterEntityManager();
+            return false;
         }
+    }
 
-        logger.debug("Storing item...done");
+    private EntityManager getWriterEntityManager() {
+        EntityManager em = writerEntityManager;
+        if (em == null || !em.isOpen()) {
+            em = getEntityManagerFactory().createEntityManager();
+            writerEntityManager = em;
+        }
+        return em;
+    }
+
+    private void closeWriterEntityManager() {
+        synchronized (writeLock) {
+            EntityManager em = writerEntityManager;
+            if (em != null && em.isOpen()) {
+                em.close();
+            }
+            writerEntityManager = null;
+        }
     }
 
     @Override
@@ -174,31 +293,18 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
+        // make buffered items visible to the query
+        flushPendingItems();
+
         String itemName = filter.getItemName();
         Item item = getItemFromRegistry(itemName);
 
-        String sortOrder;
-        if (filter.getOrdering() == Ordering.ASCENDING) {
-            sortOrder = "ASC";
-        } else {
-            sortOrder = "DESC";
-        }
+        boolean ascending = filter.getOrdering() == Ordering.ASCENDING;
+        boolean hasBeginDate = filter.getBeginDate() != null;
+        boolean hasEndDate = filter.getEndDate() != null;
+        String queryName = getQueryName(hasBeginDate, hasEndDate, ascending);
 
-        boolean hasBeginDate = false;
-        boolean hasEndDate = false;
-        String queryString = "SELECT n FROM " + JpaPersistentItem.class.getSimpleName()
-                + " n WHERE n.realName = :itemName";
-        if (filter.getBeginDate() != null) {
-            queryString += " AND n.timestamp >= :beginDate";
-            hasBeginDate = true;
-        }
-        if (filter.getEndDate() != null) {
-            queryString += " AND n.timestamp <= :endDate";
-            hasEndDate = true;
-        }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
-
-        logger.debug("The query: {}", queryString);
+        logger.debug("The query: {}", queryName);
 
         EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
@@ -206,7 +312,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             em.getTransaction().begin();
 
             logger.debug("Creating query...");
-            Query query = em.createQuery(queryString);
+            TypedQuery<JpaPersistentItem> query = em.createNamedQuery(queryName, JpaPersistentItem.class);
             query.setParameter("itemName", item.getName());
             if (hasBeginDate) {
                 query.setParameter("beginDate", Date.from(filter.getBeginDate().toInstant()));
@@ -220,7 +326,6 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.debug("Creating query...done");
 
             logger.debug("Retrieving result list...");
-            @SuppressWarnings("unchecked")
             List<JpaPersistentItem> result = query.getResultList();
             logger.debug("Retrieving result list...done");
 
@@ -240,6 +345,18 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         return Collections.emptyList();
     }
 
+    private String getQueryName(boolean hasBeginDate, boolean hasEndDate, boolean ascending) {
+        if (hasBeginDate && hasEndDate) {
+            return ascending ? JpaPersistentItem.QUERY_BETWEEN_ASC : JpaPersistentItem.QUERY_BETWEEN_DESC;
+        } else if (hasBeginDate) {
+            return ascending ? JpaPersistentItem.QUERY_SINCE_ASC : JpaPersistentItem.QUERY_SINCE_DESC;
+        } else if (hasEndDate) {
+            return ascending ? JpaPersistentItem.QUERY_UNTIL_ASC : JpaPersistentItem.QUERY_UNTIL_DESC;
+        } else {
+            return ascending ? JpaPersistentItem.QUERY_ALL_ASC : JpaPersistentItem.QUERY_ALL_DESC;
+        }
+    }
+
     /**
      * Creates a new EntityManagerFactory with properties read from openhab.cfg via JpaConfiguration.
      *
@@ -264,6 +381,8 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.warn("You are settings openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
         }
+        // send the inserts of a transaction to the database in JDBC batches
+        properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
 
         EntityManagerFactory fac = Persistence.createEntityManagerFactory(getPersistenceUnitName(), properties);
         logger.debug("Creating EntityManagerFactory...done");
@@ -275,6 +394,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
      * Closes EntityManagerFactory
      */
     protected void closeEntityManagerFactory() {
+        closeWriterEntityManager();
         if (emf != null) {
             emf.close();
             emf = null;
@@ -22,6 +22,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -33,14 +35,46 @@ import org.openhab.core.types.UnDefType;
 /**
  * This is the DAO object used for storing and retrieving to and from database.
  *
+ * The history lookups are defined as named queries, so that they are parsed only once.
+ *
  * @author Manfred Bergmann - Initial contribution
  *
  */
 
 @Entity
 @Table(name = "HISTORIC_ITEM")
+@NamedQueries({
+        @NamedQuery(name = JpaPersistentItem.QUERY_ALL_ASC, query = JpaPersistentItem.SELECT + JpaPersistentItem.ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_ALL_DESC, query = JpaPersistentItem.SELECT + JpaPersistentItem.DESC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_SINCE_ASC, query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.SINCE + JpaPersistentItem.ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_SINCE_DESC, query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.SINCE + JpaPersistentItem.DESC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_UNTIL_ASC, query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.UNTIL + JpaPersistentItem.ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_UNTIL_DESC, query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.UNTIL + JpaPersistentItem.DESC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_BETWEEN_ASC, query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.SINCE + JpaPersistentItem.UNTIL + JpaPersistentItem.ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_BETWEEN_DESC, query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.SINCE + JpaPersistentItem.UNTIL + JpaPersistentItem.DESC) })
 public class JpaPersistentItem implements HistoricItem {
 
+    public static final String QUERY_ALL_ASC = "JpaPersistentItem.allAsc";
+    public static final String QUERY_ALL_DESC = "JpaPersistentItem.allDesc";
+    public static final String QUERY_SINCE_ASC = "JpaPersistentItem.sinceAsc";
+    public static final String QUERY_SINCE_DESC = "JpaPersistentItem.sinceDesc";
+    public static final String QUERY_UNTIL_ASC = "JpaPersistentItem.untilAsc";
+    public static final String QUERY_UNTIL_DESC = "JpaPersistentItem.untilDesc";
+    public static final String QUERY_BETWEEN_ASC = "JpaPersistentItem.betweenAsc";
+    public static final String QUERY_BETWEEN_DESC = "JpaPersistentItem.betweenDesc";
+
+    static final String SELECT = "SELECT n FROM JpaPersistentItem n WHERE n.realName = :itemName";
+    static final String SINCE = " AND n.timestamp >= :beginDate";
+    static final String UNTIL = " AND n.timestamp <= :endDate";
+    static final String ASC = " ORDER BY n.timestamp ASC";
+    static final String DESC = " ORDER BY n.timestamp DESC";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Configuration of the {@link MapDbPersistenceService}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbConfiguration {
+    /** interval in milliseconds in which pending updates are committed, 0 commits every update */
+    public int commitInterval = 0;
+    /** number of pending updates that triggers a commit before the interval has passed */
+    public int commitThreshold = 100;
+}
@@ -25,6 +25,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,8 +37,10 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.Configuration;
 import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
@@ -45,7 +52,9 @@ import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +69,8 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_ID = "mapdb";
@@ -68,22 +78,34 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
     private static final Path BACKUP_DIR = DB_DIR.resolve("backup");
     private static final String DB_FILE_NAME = "storage.mapdb";
+    /** map with the binary encoded items */
+    private static final String MAP_NAME = "items";
+    /** map with the JSON encoded items of older versions */
+    private static final String JSON_MAP_NAME = "itemStore";
 
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
+
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private int commitInterval;
+    private int commitThreshold;
+    private @Nullable ScheduledFuture<?> commitJob;
 
     /** holds the local instance of the MapDB database */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    private @NonNullByDefault({}) Map<String, byte[]> map;
 
-    private transient Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
-            .create();
+    private final MapDbItemCodec codec = new MapDbItemCodec();
 
     @Activate
-    public void activate() {
+    public void activate(final Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
+        modified(config);
 
         try {
             Files.createDirectories(DB_DIR);
@@ -96,7 +118,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         File dbFile = DB_DIR.resolve(DB_FILE_NAME).toFile();
         try {
             db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-            map = db.createTreeMap("itemStore").makeOrGet();
+            map = openMap(db);
         } catch (RuntimeException re) {
             Throwable cause = re.getCause();
             if (cause instanceof ClassNotFoundException) {
@@ -129,7 +151,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
                 }
 
                 db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-                map = db.createTreeMap("itemStore").makeOrGet();
+                map = openMap(db);
             } else {
                 logger.warn("Failed to create or open the MapDB: {}", re.getMessage());
                 logger.warn("MapDB persistence service activation has failed.");
@@ -138,10 +160,73 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         logger.debug("MapDB persistence service is now activated");
     }
 
+    private Map<String, byte[]> openMap(DB db) {
+        boolean migrate = !db.exists(MAP_NAME) && db.exists(JSON_MAP_NAME);
+        Map<String, byte[]> map = db.createTreeMap(MAP_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        if (migrate) {
+            migrateJsonMap(db, map);
+        }
+        return map;
+    }
+
+    /**
+     * Converts the JSON encoded items of older versions to the binary format. This is only done once, when the
+     * binary map is created. The old map is kept untouched, so that older versions still find the states that were
+     * stored up to the upgrade.
+     */
+    private void migrateJsonMap(DB db, Map<String, byte[]> map) {
+        Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter()).create();
+        Map<String, String> jsonMap = db.getTreeMap(JSON_MAP_NAME);
+        int migrated = 0;
+        for (Map.Entry<String, String> entry : jsonMap.entrySet()) {
+            try {
+                MapDbItem item = mapper.fromJson(entry.getValue(), MapDbItem.class);
+                if (item != null && item.isValid() && !map.containsKey(entry.getKey())) {
+                    map.put(entry.getKey(), codec.encode(item));
+                    migrated++;
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to migrate '{}': {}", entry.getKey(), e.getMessage());
+            }
+        }
+        db.commit();
+        logger.info("Migrated {} items of the MapDB to the binary format", migrated);
+    }
+
+    @Modified
+    protected synchronized void modified(final Map<String, Object> config) {
+        MapDbConfiguration configuration = new Configuration(config).as(MapDbConfiguration.class);
+        commitInterval = configuration.commitInterval;
+        commitThreshold = configuration.commitThreshold;
+
+        ScheduledFuture<?> job = commitJob;
+        if (job != null) {
+            job.cancel(false);
+            commitJob = null;
+        }
+        if (commitInterval > 0) {
+            logger.debug("Using group commits every {} ms or after {} updates", commitInterval, commitThreshold);
+            commitJob = scheduler.scheduleWithFixedDelay(this::commitPending, commitInterval, commitInterval,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            // write out what has been collected in group commit mode so far
+            commitPending();
+        }
+    }
+
     @Deactivate
-    public void deactivate() {
+    public synchronized void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        ScheduledFuture<?> job = commitJob;
+        if (job != null) {
+            job.cancel(false);
+            commitJob = null;
+        }
         if (db != null) {
+            // closing the database discards uncommitted updates
+            if (pendingUpdates.getAndSet(0) > 0) {
+                db.commit();
+            }
             db.close();
         }
     }
@@ -182,43 +267,69 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(localAlias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(localAlias, json);
-        commit();
+        byte[] data;
+        try {
+            data = codec.encode(mItem);
+        } catch (IOException e) {
+            logger.warn("Failed to encode '{}' with state '{}': {}", localAlias, state, e.getMessage());
+            return;
+        }
+        map.put(localAlias, data);
+        if (commitInterval <= 0 || pendingUpdates.incrementAndGet() >= commitThreshold) {
+            commit();
+        }
         if (logger.isDebugEnabled()) {
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+            logger.debug("Stored '{}' with state '{}' as {} bytes in MapDB database", localAlias, state, data.length);
         }
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        byte[] data = map.get(filter.getItemName());
+        if (data == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(data);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
-    }
-
-    @SuppressWarnings("null")
-    private Optional<MapDbItem> deserialize(String json) {
-        MapDbItem item = mapper.<MapDbItem> fromJson(json, MapDbItem.class);
+    private Optional<MapDbItem> deserialize(byte[] data) {
+        MapDbItem item = codec.decode(data);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
             return Optional.empty();
         } else if (logger.isDebugEnabled()) {
-            logger.debug("Deserialized '{}' with state '{}' from '{}'", item.getName(), item.getState(), json);
+            logger.debug("Deserialized '{}' with state '{}'", item.getName(), item.getState());
         }
 
         return Optional.of(item);
     }
 
     private void commit() {
-        threadPool.submit(() -> db.commit());
+        if (commitInterval <= 0) {
+            threadPool.submit(this::commitNow);
+        } else if (commitScheduled.compareAndSet(false, true)) {
+            // updates arriving while a commit is queued are included in that commit
+            threadPool.submit(() -> {
+                commitScheduled.set(false);
+                commitPending();
+            });
+        }
+    }
+
+    /*
+     * Commits run on other threads and synchronize with deactivate(), so that they never use a closed database.
+     */
+    private synchronized void commitNow() {
+        if (db != null && !db.isClosed()) {
+            db.commit();
+        }
+    }
+
+    private synchronized void commitPending() {
+        if (db != null && !db.isClosed() && pendingUpdates.getAndSet(0) > 0) {
+            db.commit();
+        }
     }
 
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
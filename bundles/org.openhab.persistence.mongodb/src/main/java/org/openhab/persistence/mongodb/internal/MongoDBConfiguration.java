@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Optional settings of the {@link MongoDBPersistenceService}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBConfiguration {
+    /** milliseconds between bulk inserts of buffered values, 0 to insert every value directly */
+    public int flushInterval = 0;
+    /** number of buffered values that triggers a bulk insert before the flush interval has passed */
+    public int bulkSize = 100;
+    /** maximum number of buffered values, the oldest values are dropped if the database can't keep up */
+    public int maxBufferSize = 10000;
+}
@@ -14,17 +14,25 @@ package org.openhab.persistence.mongodb.internal;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.bson.types.ObjectId;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.Configuration;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -60,15 +68,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
+import com.mongodb.MongoException;
 
 /**
  * This is the implementation of the MongoDB {@link PersistenceService}.
  *
+ * If a flush interval is configured, stored values are buffered and inserted with unordered bulk writes.
+ *
  * @author Thorsten Hoeger - Initial contribution
  */
 @NonNullByDefault
@@ -82,6 +96,8 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private static final String FIELD_TIMESTAMP = "timestamp";
     private static final String FIELD_VALUE = "value";
 
+    private static final MongoDBConfiguration DEFAULT_CONFIGURATION = new MongoDBConfiguration();
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
     private @NonNullByDefault({}) String url;
@@ -95,6 +111,17 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private @NonNullByDefault({}) MongoClient cl;
     private @NonNullByDefault({}) DBCollection mongoCollection;
 
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
+
+    private int flushInterval = DEFAULT_CONFIGURATION.flushInterval;
+    private int bulkSize = DEFAULT_CONFIGURATION.bulkSize;
+    private int maxBufferSize = DEFAULT_CONFIGURATION.maxBufferSize;
+
+    private final Deque<DBObject> pendingDocuments = new ArrayDeque<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private @Nullable ScheduledFuture<?> flushJob;
+
     @Activate
     public MongoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -122,9 +149,20 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
+        MongoDBConfiguration configuration = new Configuration(config).as(MongoDBConfiguration.class);
+        flushInterval = configuration.flushInterval;
+        bulkSize = Math.max(1, configuration.bulkSize);
+        maxBufferSize = Math.max(bulkSize, configuration.maxBufferSize);
+
         disconnectFromDatabase();
         connectToDatabase();
 
+        if (flushInterval > 0) {
+            logger.debug("MongoDB bulk inserts every {} ms or after {} values", flushInterval, bulkSize);
+            flushJob = scheduler.scheduleWithFixedDelay(this::flushPendingDocuments, flushInterval, flushInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+
         // connection has been established... initialization completed!
         initialized = true;
     }
@@ -132,6 +170,12 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        flushPendingDocuments();
         disconnectFromDatabase();
     }
 
@@ -181,9 +225,83 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         obj.put(FIELD_REALNAME, realName);
         obj.put(FIELD_TIMESTAMP, new Date());
         obj.put(FIELD_VALUE, value);
-        this.mongoCollection.save(obj);
 
-        logger.debug("MongoDB save {}={}", name, value);
+        if (flushInterval <= 0) {
+            this.mongoCollection.save(obj);
+            logger.debug("MongoDB save {}={}", name, value);
+            return;
+        }
+
+        int pending;
+        synchronized (pendingDocuments) {
+            pendingDocuments.addLast(obj);
+            dropOverflowingDocuments();
+            pending = pendingDocuments.size();
+        }
+        logger.debug("MongoDB buffer {}={}", name, value);
+        if (pending >= bulkSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushPendingDocuments();
+            });
+        }
+    }
+
+    /**
+     * Inserts all buffered documents with one unordered bulk write, so that a failing document doesn't prevent
+     * the others from being inserted. Without a connection, or if the bulk write fails as a whole, the documents
+     * stay buffered for the next flush.
+     */
+    private void flushPendingDocuments() {
+        DBCollection collection = this.mongoCollection;
+        List<DBObject> documents;
+        synchronized (pendingDocuments) {
+            if (pendingDocuments.isEmpty()) {
+                return;
+            }
+            if (collection == null) {
+                logger.warn("mongodb: No connection to database. Keeping {} buffered values until the next flush.",
+                        pendingDocuments.size());
+                return;
+            }
+            documents = new ArrayList<>(pendingDocuments);
+            pendingDocuments.clear();
+        }
+
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        documents.forEach(bulk::insert);
+        try {
+            BulkWriteResult result = bulk.execute();
+            logger.debug("MongoDB bulk insert of {} documents", result.getInsertedCount());
+        } catch (BulkWriteException e) {
+            // only the documents with write errors are dropped, the others have been inserted
+            logger.warn("MongoDB bulk insert failed for {} of {} documents: {}", e.getWriteErrors().size(),
+                    documents.size(), e.getMessage());
+        } catch (MongoException e) {
+            logger.warn("MongoDB bulk insert of {} documents failed, retrying with the next flush: {}",
+                    documents.size(), e.getMessage());
+            synchronized (pendingDocuments) {
+                for (int i = documents.size() - 1; i >= 0; i--) {
+                    pendingDocuments.addFirst(documents.get(i));
+                }
+                dropOverflowingDocuments();
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest buffered documents while the buffer holds more than the configured maximum. Must be called
+     * while holding the lock of {@link #pendingDocuments}.
+     */
+    private void dropOverflowingDocuments() {
+        int dropped = 0;
+        while (pendingDocuments.size() > maxBufferSize) {
+            pendingDocuments.removeFirst();
+            dropped++;
+        }
+        if (dropped > 0) {
+            logger.warn("MongoDB buffer is full, dropped the {} oldest values", dropped);
+        }
     }
 
     private Object convertValue(State state) {
@@ -234,6 +352,11 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             BasicDBObject idx = new BasicDBObject();
             idx.append(FIELD_TIMESTAMP, 1).append(FIELD_ITEM, 1);
             this.mongoCollection.createIndex(idx);
+
+            // supports the per item range queries and their stable order
+            BasicDBObject itemIdx = new BasicDBObject();
+            itemIdx.append(FIELD_ITEM, 1).append(FIELD_TIMESTAMP, 1).append(FIELD_ID, 1);
+            this.mongoCollection.createIndex(itemIdx, new BasicDBObject("background", true));
             logger.debug("Connect MongoDB ... done");
         } catch (Exception e) {
             logger.error("Failed to connect to database {}", this.url);
@@ -269,8 +392,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         String name = filter.getItemName();
         Item item = getItem(name);
 
-        List<HistoricItem> items = new ArrayList<>();
-        DBObject query = new BasicDBObject();
+        BasicDBObject query = new BasicDBObject();
         if (filter.getItemName() != null) {
             query.put(FIELD_ITEM, filter.getItemName());
         }
@@ -279,45 +401,59 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             Object value = convertValue(filter.getState());
             query.put(FIELD_VALUE, new BasicDBObject(op, value));
         }
-        if (filter.getBeginDate() != null) {
-            query.put(FIELD_TIMESTAMP, new BasicDBObject("$gte", filter.getBeginDate()));
+        BasicDBObject timestampRange = new BasicDBObject();
+        ZonedDateTime beginDate = filter.getBeginDate();
+        if (beginDate != null) {
+            timestampRange.put("$gte", Date.from(beginDate.toInstant()));
+        }
+        ZonedDateTime endDate = filter.getEndDate();
+        if (endDate != null) {
+            timestampRange.put("$lte", Date.from(endDate.toInstant()));
         }
-        if (filter.getBeginDate() != null) {
-            query.put(FIELD_TIMESTAMP, new BasicDBObject("$lte", filter.getBeginDate()));
+        if (!timestampRange.isEmpty()) {
+            query.put(FIELD_TIMESTAMP, timestampRange);
         }
 
-        Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
-        DBCursor cursor = this.mongoCollection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
+        int sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
+
+        List<HistoricItem> items = new ArrayList<>();
+        // the id makes the order of values with the same timestamp, and thereby the pages, deterministic
+        DBObject sort = new BasicDBObject(FIELD_TIMESTAMP, sortDir).append(FIELD_ID, sortDir);
+        DBCursor cursor = this.mongoCollection.find(query).sort(sort)
                 .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize());
 
-        while (cursor.hasNext()) {
-            BasicDBObject obj = (BasicDBObject) cursor.next();
-
-            final State state;
-            if (item instanceof NumberItem) {
-                state = new DecimalType(obj.getDouble(FIELD_VALUE));
-            } else if (item instanceof DimmerItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof SwitchItem) {
-                state = OnOffType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof ContactItem) {
-                state = OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof RollershutterItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof DateTimeItem) {
-                state = new DateTimeType(
-                        ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
-            } else {
-                state = new StringType(obj.getString(FIELD_VALUE));
+        try {
+            while (cursor.hasNext()) {
+                BasicDBObject obj = (BasicDBObject) cursor.next();
+                items.add(new MongoDBItem(name, toState(item, obj),
+                        ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
             }
-
-            items.add(new MongoDBItem(name, state,
-                    ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+        } finally {
+            cursor.close();
         }
 
         return items;
     }
 
+    private State toState(@Nullable Item item, BasicDBObject obj) {
+        if (item instanceof NumberItem) {
+            return new DecimalType(obj.getDouble(FIELD_VALUE));
+        } else if (item instanceof DimmerItem) {
+            return new PercentType(obj.getInt(FIELD_VALUE));
+        } else if (item instanceof SwitchItem) {
+            return OnOffType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof ContactItem) {
+            return OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof RollershutterItem) {
+            return new PercentType(obj.getInt(FIELD_VALUE));
+        } else if (item instanceof DateTimeItem) {
+            return new DateTimeType(
+                    ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
+        } else {
+            return new StringType(obj.getString(FIELD_VALUE));
+        }
+    }
+
     private @Nullable String convertOperator(Operator operator) {
         switch (operator) {
             case EQ:
@@ -331,7 +467,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             case LTE:
                 return "$lte";
             case NEQ:
-                return "$neq";
+                return "$ne";
             default:
                 return null;
         }
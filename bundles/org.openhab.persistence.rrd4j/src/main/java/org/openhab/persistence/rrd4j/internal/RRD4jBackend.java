@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdMemoryBackendFactory;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.rrd4j.core.RrdRandomAccessFileBackendFactory;
+
+/**
+ * Storage backend used for the rrd4j databases.
+ *
+ * With the memory backend all databases are kept in memory. Existing database files are loaded on first use, and
+ * {@link #snapshot(RrdDb)} writes the current content back to the file.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jBackend {
+
+    public enum Type {
+        /** the default backend of the rrd4j library */
+        DEFAULT,
+        /** random access file, every update is written to disk directly */
+        FILE,
+        /** memory mapped file that is synced to disk periodically */
+        NIO,
+        /** in memory, written to disk by periodic snapshots */
+        MEMORY;
+
+        public static Type fromConfig(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Type type;
+    private final RrdBackendFactory factory;
+    private final Set<String> memoryPaths = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param type the backend type
+     * @param syncPeriod sync period in seconds of the NIO backend
+     * @param scheduler executor used for syncing the NIO backend
+     */
+    public RRD4jBackend(Type type, int syncPeriod, ScheduledExecutorService scheduler) {
+        this.type = type;
+        switch (type) {
+            case FILE:
+                factory = new RrdRandomAccessFileBackendFactory();
+                break;
+            case NIO:
+                factory = new RrdNioBackendFactory(syncPeriod, scheduler);
+                break;
+            case MEMORY:
+                factory = new RrdMemoryBackendFactory();
+                break;
+            default:
+                factory = RrdBackendFactory.getDefaultFactory();
+                break;
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public RrdBackendFactory getFactory() {
+        return factory;
+    }
+
+    public boolean exists(String path) {
+        return memoryPaths.contains(path) || new File(path).exists();
+    }
+
+    /**
+     * Opens an existing database.
+     */
+    public RrdDb open(String path) throws IOException {
+        if (type != Type.MEMORY || memoryPaths.contains(path)) {
+            return new RrdDb(path, factory);
+        }
+        // load the content of the database file into memory
+        RrdDb fileDb = new RrdDb(path, true, new RrdRandomAccessFileBackendFactory());
+        try {
+            RrdDb db = new RrdDb(fileDb.getRrdDef(), factory);
+            fileDb.copyStateTo(db);
+            memoryPaths.add(path);
+            return db;
+        } finally {
+            fileDb.close();
+        }
+    }
+
+    /**
+     * Creates a new database.
+     */
+    public RrdDb create(RrdDef rrdDef) throws IOException {
+        RrdDb db = new RrdDb(rrdDef, factory);
+        if (type == Type.MEMORY) {
+            memoryPaths.add(rrdDef.getPath());
+        }
+        return db;
+    }
+
+    /**
+     * @return the paths of all databases that are held in memory
+     */
+    public Set<String> getMemoryPaths() {
+        return Set.copyOf(memoryPaths);
+    }
+
+    /**
+     * Writes the content of an in-memory database to its file.
+     */
+    public void snapshot(RrdDb db) throws IOException {
+        byte[] content = db.getBytes();
+        Path target = Paths.get(db.getPath());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String toString() {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Service settings of the {@link RRD4jPersistenceService}. All other configuration keys are database definitions.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jConfiguration {
+    /** maximum number of open databases */
+    public int maxOpenDatabases = 256;
+    /** seconds after which an unused database is closed */
+    public int idleTimeout = 300;
+    public String backend = "";
+    /** seconds between syncs of the NIO backend */
+    public int syncPeriod = 300;
+    /** seconds between snapshots of the memory backend */
+    public int snapshotInterval = 300;
+}
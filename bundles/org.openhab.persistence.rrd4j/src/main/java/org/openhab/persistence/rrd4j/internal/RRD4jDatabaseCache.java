@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded LRU cache of open {@link RrdDb} instances, so that the database file of an item does not have to be
+ * opened and parsed again for every sample that is stored or queried.
+ *
+ * Callers acquire a database, use it and release it again. A database that is evicted while still in use is
+ * closed when its last user releases it. Databases that have not been used for longer than the idle timeout are
+ * closed by {@link #evictIdle()}.
+ *
+ * Databases are opened outside of the cache lock, so that opening or creating the file of one item does not block
+ * the other items. Concurrent callers for a database that is being opened wait for it to be opened.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDatabaseCache {
+
+    /**
+     * Opens (or creates) the database for the given name.
+     */
+    @FunctionalInterface
+    public interface Opener {
+        @Nullable
+        RrdDb open(String name) throws IOException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RRD4jDatabaseCache.class);
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** evicted databases that are still in use */
+    private final List<Entry> pendingClose = new ArrayList<>();
+
+    private int maxOpen;
+    private long idleTimeout;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Entry {
+        /** completed with the database once it is opened, or with null if there is none */
+        private final CompletableFuture<@Nullable RrdDb> opened = new CompletableFuture<>();
+        private @Nullable RrdDb db;
+        private long lastAccess;
+        private int users;
+        private boolean evicted;
+    }
+
+    /**
+     * @param maxOpen maximum number of open databases, 0 disables caching
+     * @param idleTimeout time in milliseconds after which an unused database is closed
+     */
+    public RRD4jDatabaseCache(int maxOpen, long idleTimeout) {
+        this.maxOpen = maxOpen;
+        this.idleTimeout = idleTimeout;
+    }
+
+    public synchronized void setLimits(int maxOpen, long idleTimeout) {
+        this.maxOpen = maxOpen;
+        this.idleTimeout = idleTimeout;
+        evictOverflow();
+    }
+
+    /**
+     * Returns the open database for the given name, opening it if necessary. Every successful call must be paired
+     * with a call to {@link #release(String, RrdDb)}.
+     */
+    public @Nullable RrdDb acquire(String name, Opener opener) throws IOException {
+        Entry entry;
+        boolean open = false;
+        synchronized (this) {
+            entry = entries.get(name);
+            if (entry != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                entry = new Entry();
+                entries.put(name, entry);
+                open = true;
+            }
+            entry.users++;
+            entry.lastAccess = System.currentTimeMillis();
+        }
+        return open ? open(name, entry, opener) : await(entry);
+    }
+
+    public synchronized void release(String name, RrdDb db) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.db != db) {
+            // the database has been evicted in the meantime, close it once the last user is done
+            closeIfUnused(findEvicted(db));
+            return;
+        }
+        entry.users--;
+        entry.lastAccess = System.currentTimeMillis();
+        if (maxOpen <= 0 && entry.users == 0) {
+            entries.remove(name);
+            evict(entry);
+        }
+    }
+
+    /**
+     * Closes all databases that have not been used within the idle timeout.
+     */
+    public synchronized void evictIdle() {
+        long threshold = System.currentTimeMillis() - idleTimeout;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.users == 0 && entry.lastAccess < threshold) {
+                it.remove();
+                evict(entry);
+            }
+        }
+    }
+
+    /**
+     * Closes all databases that are not in use. Databases still in use are closed when they are released.
+     */
+    public synchronized void closeAll() {
+        for (Entry entry : entries.values()) {
+            evict(entry);
+        }
+        entries.clear();
+    }
+
+    public synchronized int getOpenCount() {
+        return entries.size() + pendingClose.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private @Nullable RrdDb open(String name, Entry entry, Opener opener) throws IOException {
+        RrdDb db;
+        try {
+            db = opener.open(name);
+        } catch (IOException | RuntimeException e) {
+            discard(name, entry);
+            entry.opened.completeExceptionally(e);
+            throw e;
+        }
+        if (db == null) {
+            discard(name, entry);
+            entry.opened.complete(null);
+            return null;
+        }
+        synchronized (this) {
+            entry.db = db;
+            evictOverflow();
+        }
+        entry.opened.complete(db);
+        return db;
+    }
+
+    private @Nullable RrdDb await(Entry entry) throws IOException {
+        try {
+            return entry.opened.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the rrd4j database to be opened", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause != null ? cause.getMessage() : e.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Removes an entry whose database could not be opened. Callers waiting for it don't release it.
+     */
+    private synchronized void discard(String name, Entry entry) {
+        if (entries.get(name) == entry) {
+            entries.remove(name);
+        }
+        pendingClose.remove(entry);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > Math.max(maxOpen, 1) && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.users == 0) {
+                it.remove();
+                evict(entry);
+            }
+        }
+    }
+
+    private void evict(Entry entry) {
+        evictions.incrementAndGet();
+        entry.evicted = true;
+        if (entry.users > 0) {
+            pendingClose.add(entry);
+        } else {
+            close(entry);
+        }
+    }
+
+    private @Nullable Entry findEvicted(RrdDb db) {
+        for (Entry entry : pendingClose) {
+            if (entry.db == db) {
+                entry.users--;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void closeIfUnused(@Nullable Entry entry) {
+        if (entry != null && entry.evicted && entry.users <= 0) {
+            pendingClose.remove(entry);
+            close(entry);
+        }
+    }
+
+    private void close(Entry entry) {
+        RrdDb db = entry.db;
+        if (db == null) {
+            // still being opened, the database is closed when its last user releases it
+            return;
+        }
+        try {
+            db.close();
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j database: {}", e.getMessage());
+        }
+    }
+}
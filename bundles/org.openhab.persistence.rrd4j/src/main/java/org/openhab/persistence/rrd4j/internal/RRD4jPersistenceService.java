@@ -18,7 +18,6 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -30,6 +29,8 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.measure.Quantity;
 import javax.measure.Unit;
@@ -38,6 +39,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.config.core.Configuration;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -67,12 +69,14 @@ import org.openhab.core.types.State;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
 import org.rrd4j.core.Sample;
@@ -87,16 +91,29 @@ import org.slf4j.LoggerFactory;
  * @author Kai Kreuzer - Initial contribution
  * @author Jan N. Klug - some improvements
  * @author Karel Goderis - remove TimerThread dependency
+ * @author agent - per item locking, cached database handles and selectable backend
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class,
-        QueryablePersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        RRD4jPersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private static final String DEFAULT_OTHER = "default_other";
     private static final String DEFAULT_NUMERIC = "default_numeric";
     private static final String DEFAULT_QUANTIFIABLE = "default_quantifiable";
 
+    private static final String CONFIG_MAX_OPEN_DATABASES = "maxOpenDatabases";
+    private static final String CONFIG_IDLE_TIMEOUT = "idleTimeout";
+    private static final String CONFIG_BACKEND = "backend";
+    private static final String CONFIG_SYNC_PERIOD = "syncPeriod";
+    private static final String CONFIG_SNAPSHOT_INTERVAL = "snapshotInterval";
+    private static final Set<String> SERVICE_SETTINGS = Set.of("service.pid", "component.name",
+            CONFIG_MAX_OPEN_DATABASES, CONFIG_IDLE_TIMEOUT, CONFIG_BACKEND, CONFIG_SYNC_PERIOD,
+            CONFIG_SNAPSHOT_INTERVAL);
+    private static final RRD4jConfiguration DEFAULT_CONFIGURATION = new RRD4jConfiguration();
+    private static final int EVICTION_INTERVAL = 60;
+    private static final int LOCK_STRIPES = 64;
+
     private static final Set<String> SUPPORTED_TYPES = Set.of(CoreItemFactory.SWITCH, CoreItemFactory.CONTACT,
             CoreItemFactory.DIMMER, CoreItemFactory.NUMBER, CoreItemFactory.ROLLERSHUTTER, CoreItemFactory.COLOR);
 
@@ -111,13 +128,33 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
 
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<>();
+    private final Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] storeLocks = new ReentrantLock[LOCK_STRIPES];
+
+    private final RRD4jDatabaseCache databases = new RRD4jDatabaseCache(DEFAULT_CONFIGURATION.maxOpenDatabases,
+            TimeUnit.SECONDS.toMillis(DEFAULT_CONFIGURATION.idleTimeout));
+
+    private final AtomicLong storeCount = new AtomicLong();
+    private final AtomicLong storeTimeNanos = new AtomicLong();
+    private final AtomicLong maxStoreTimeNanos = new AtomicLong();
+
+    private @Nullable ScheduledFuture<?> evictionJob;
+    private @Nullable ScheduledFuture<?> snapshotJob;
+
+    private volatile RRD4jBackend backend = new RRD4jBackend(RRD4jBackend.Type.DEFAULT,
+            DEFAULT_CONFIGURATION.syncPeriod, scheduler);
+    private int syncPeriod = DEFAULT_CONFIGURATION.syncPeriod;
+    private int snapshotInterval = DEFAULT_CONFIGURATION.snapshotInterval;
 
     protected final ItemRegistry itemRegistry;
 
     @Activate
     public RRD4jPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        for (int i = 0; i < storeLocks.length; i++) {
+            storeLocks[i] = new ReentrantLock();
+        }
     }
 
     @Override
@@ -131,12 +168,27 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     @Override
-    public synchronized void store(final Item item, @Nullable final String alias) {
+    public void store(final Item item, @Nullable final String alias) {
         if (!isSupportedItemType(item)) {
             logger.trace("Ignoring item '{}' since its type {} is not supported", item.getName(), item.getType());
             return;
         }
         final String name = alias == null ? item.getName() : alias;
+        long timerStart = System.nanoTime();
+        ReentrantLock lock = getStoreLock(name);
+        lock.lock();
+        try {
+            doStore(item, name);
+        } finally {
+            lock.unlock();
+        }
+        long duration = System.nanoTime() - timerStart;
+        storeCount.incrementAndGet();
+        storeTimeNanos.addAndGet(duration);
+        maxStoreTimeNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    private void doStore(final Item item, final String name) {
         RrdDb db = getDB(name);
         if (db != null) {
             ConsolFun function = getConsolidationFunction(db);
@@ -202,24 +254,18 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 String message = e.getMessage();
                 if (message != null && message.contains("at least one second step is required")) {
                     // we try to store the value one second later
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
+                    ScheduledFuture<?> job = scheduledJobs.remove(name);
                     if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
+                        job.cancel(false);
                     }
-                    job = scheduler.schedule(() -> store(item, name), 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
+                    scheduledJobs.put(name, scheduler.schedule(() -> store(item, name), 1, TimeUnit.SECONDS));
                 } else {
                     logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
                 }
             } catch (Exception e) {
                 logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
-            }
+            releaseDB(name, db);
         }
     }
 
@@ -237,7 +283,14 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             logger.debug("Could not find item '{}' in rrd4j database", itemName);
             return List.of();
         }
+        try {
+            return query(filter, itemName, db);
+        } finally {
+            releaseDB(itemName, db);
+        }
+    }
 
+    private Iterable<HistoricItem> query(FilterCriteria filter, String itemName, RrdDb db) {
         Item item = null;
         Unit<?> unit = null;
         try {
@@ -313,13 +366,63 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias) {
+    /**
+     * Returns the shared database for the given item, which must be handed back with {@link #releaseDB} after use.
+     */
+    protected @Nullable RrdDb getDB(String alias) {
+        try {
+            return databases.acquire(alias, this::openDB);
+        } catch (IOException e) {
+            logger.error("Could not open rrd4j database for item '{}': {}", alias, e.getMessage());
+            return null;
+        }
+    }
+
+    protected void releaseDB(String alias, RrdDb db) {
+        databases.release(alias, db);
+    }
+
+    /**
+     * @return the backend factory that has to be used for reading the database files
+     */
+    public RrdBackendFactory getBackendFactory() {
+        return backend.getFactory();
+    }
+
+    /**
+     * Returns the consolidation function of an existing database without creating a new one.
+     */
+    public ConsolFun getConsolidationFunction(String alias) {
+        if (!backend.exists(getDBPath(alias))) {
+            return ConsolFun.MAX;
+        }
+        RrdDb db = getDB(alias);
+        if (db == null) {
+            return ConsolFun.MAX;
+        }
+        try {
+            return getConsolidationFunction(db);
+        } finally {
+            releaseDB(alias, db);
+        }
+    }
+
+    public static String getDBPath(String alias) {
+        return new File(DB_FOLDER + File.separator + alias + ".rrd").getAbsolutePath();
+    }
+
+    private ReentrantLock getStoreLock(String alias) {
+        return storeLocks[(alias.hashCode() & Integer.MAX_VALUE) % storeLocks.length];
+    }
+
+    private @Nullable RrdDb openDB(String alias) {
         RrdDb db = null;
-        File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
+        RRD4jBackend backend = this.backend;
+        File file = new File(getDBPath(alias));
         try {
-            if (file.exists()) {
+            if (backend.exists(file.getAbsolutePath())) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = backend.open(file.getAbsolutePath());
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -328,7 +431,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 RrdDef rrdDef = getRrdDef(alias, file);
                 if (rrdDef != null) {
                     // create a new database file
-                    db = new RrdDb(rrdDef);
+                    db = backend.create(rrdDef);
                 } else {
                     logger.debug(
                             "Did not create rrd4j database for item '{}' since no rrd definition could be determined. This is likely due to an unsupported item type.",
@@ -441,6 +544,129 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     @Activate
     protected void activate(final Map<String, Object> config) {
         modified(config);
+        evictionJob = scheduler.scheduleWithFixedDelay(this::evictIdleDatabases, EVICTION_INTERVAL,
+                EVICTION_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ScheduledFuture<?> job = evictionJob;
+        if (job != null) {
+            job.cancel(false);
+            evictionJob = null;
+        }
+        job = snapshotJob;
+        if (job != null) {
+            job.cancel(false);
+            snapshotJob = null;
+        }
+        scheduledJobs.values().forEach(j -> j.cancel(false));
+        scheduledJobs.clear();
+        snapshotDatabases();
+        databases.closeAll();
+        scheduler.shutdown();
+        logStatistics();
+    }
+
+    private synchronized void configureBackend(RRD4jBackend.Type type, int syncPeriod, int snapshotInterval) {
+        RRD4jBackend current = backend;
+        if (current.getType() != type || (type == RRD4jBackend.Type.NIO && syncPeriod != this.syncPeriod)) {
+            // write out the old backend before any database is opened with the new one
+            snapshotDatabases();
+            databases.closeAll();
+            backend = new RRD4jBackend(type, syncPeriod, scheduler);
+            logger.debug("Using rrd4j backend '{}'", backend);
+        }
+        this.syncPeriod = syncPeriod;
+
+        ScheduledFuture<?> job = snapshotJob;
+        if (job != null && (type != RRD4jBackend.Type.MEMORY || snapshotInterval != this.snapshotInterval)) {
+            job.cancel(false);
+            snapshotJob = null;
+        }
+        this.snapshotInterval = snapshotInterval;
+        if (type == RRD4jBackend.Type.MEMORY && snapshotJob == null) {
+            snapshotJob = scheduler.scheduleWithFixedDelay(this::snapshotDatabases, snapshotInterval,
+                    snapshotInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Writes all databases of the memory backend to their files.
+     */
+    private void snapshotDatabases() {
+        RRD4jBackend backend = this.backend;
+        Set<String> paths = backend.getMemoryPaths();
+        if (paths.isEmpty()) {
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        for (String path : paths) {
+            String fileName = new File(path).getName();
+            ReentrantLock lock = getStoreLock(fileName.substring(0, fileName.length() - ".rrd".length()));
+            lock.lock();
+            try {
+                RrdDb db = backend.open(path);
+                try {
+                    backend.snapshot(db);
+                } finally {
+                    db.close();
+                }
+            } catch (IOException e) {
+                logger.warn("Could not write snapshot of rrd4j database '{}': {}", path, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+        logger.debug("Wrote snapshot of {} rrd4j databases in {} ms", paths.size(),
+                System.currentTimeMillis() - timerStart);
+    }
+
+    private void evictIdleDatabases() {
+        databases.evictIdle();
+        logStatistics();
+    }
+
+    private void logStatistics() {
+        if (logger.isDebugEnabled()) {
+            long count = getStoreCount();
+            logger.debug(
+                    "rrd4j statistics: {} open databases, {} cache hits, {} cache misses, {} stores, average store time {} µs, max store time {} µs",
+                    getOpenDatabaseCount(), getCacheHitCount(), getCacheMissCount(), count,
+                    count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(storeTimeNanos.get() / count),
+                    TimeUnit.NANOSECONDS.toMicros(maxStoreTimeNanos.get()));
+        }
+    }
+
+    public int getOpenDatabaseCount() {
+        return databases.getOpenCount();
+    }
+
+    public long getCacheHitCount() {
+        return databases.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return databases.getMissCount();
+    }
+
+    public long getStoreCount() {
+        return storeCount.get();
+    }
+
+    /**
+     * @return the average time spent in {@link #store(Item, String)} in nanoseconds
+     */
+    public long getAverageStoreTime() {
+        long count = storeCount.get();
+        return count == 0 ? 0 : storeTimeNanos.get() / count;
+    }
+
+    /**
+     * @return the longest time spent in {@link #store(Item, String)} in nanoseconds
+     */
+    public long getMaxStoreTime() {
+        return maxStoreTimeNanos.get();
     }
 
     @Modified
@@ -448,6 +674,18 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         // clean existing definitions
         rrdDefs.clear();
 
+        RRD4jConfiguration configuration = new Configuration(config).as(RRD4jConfiguration.class);
+        databases.setLimits(configuration.maxOpenDatabases, TimeUnit.SECONDS.toMillis(configuration.idleTimeout));
+        RRD4jBackend.Type backendType = RRD4jBackend.Type.DEFAULT;
+        if (!configuration.backend.isBlank()) {
+            try {
+                backendType = RRD4jBackend.Type.fromConfig(configuration.backend);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring unknown backend '{}', using the default backend", configuration.backend);
+            }
+        }
+        configureBackend(backendType, configuration.syncPeriod, configuration.snapshotInterval);
+
         // add default configurations
 
         RrdDefConfig defaultNumeric = new RrdDefConfig(DEFAULT_NUMERIC);
@@ -496,8 +734,8 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         while (keys.hasNext()) {
             String key = keys.next();
 
-            if (key.equals("service.pid") || key.equals("component.name")) {
-                // ignore service.pid and name
+            if (SERVICE_SETTINGS.contains(key)) {
+                // ignore service.pid, name and service settings
                 continue;
             }
 
@@ -15,7 +15,6 @@ package org.openhab.persistence.rrd4j.internal.charts;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
@@ -40,7 +39,7 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
 import org.rrd4j.ConsolFun;
-import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphDef;
 import org.slf4j.Logger;
@@ -100,6 +99,9 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Reference
     protected ItemUIRegistry itemUIRegistry;
 
+    @Reference
+    protected RRD4jPersistenceService persistenceService;
+
     @Activate
     protected void activate() {
         try {
@@ -165,25 +167,19 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     protected void addLine(RrdGraphDef graphDef, Item item, int counter) {
         Color color = LINECOLORS[counter % LINECOLORS.length];
         String label = itemUIRegistry.getLabel(item.getName());
-        String rrdName = RRD4jPersistenceService.DB_FOLDER + File.separator + item.getName() + ".rrd";
-        ConsolFun consolFun;
+        String rrdName = RRD4jPersistenceService.getDBPath(item.getName());
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
-        try {
-            RrdDb db = new RrdDb(rrdName);
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
-            db.close();
-        } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
-        }
+        ConsolFun consolFun = persistenceService.getConsolidationFunction(item.getName());
+        RrdBackendFactory backendFactory = persistenceService.getBackendFactory();
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun, backendFactory);
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun, backendFactory);
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);
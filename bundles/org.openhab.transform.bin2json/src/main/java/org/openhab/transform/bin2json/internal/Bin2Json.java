@@ -16,6 +16,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.openhab.core.util.HexUtils;
 import org.slf4j.Logger;
@@ -66,6 +68,11 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * json.toString() = {"a":3,"b":-6,"c":255}
  * </pre>
  *
+ * <p>
+ * The parser rule is compiled once in the constructor and instances can be shared between threads. Use
+ * {@link #convertToString(byte[])} if only the JSON text is needed, it writes the parsed fields directly without
+ * building a Gson tree.
+ *
  * @author Pauli Anttila - Initial contribution
  *
  */
@@ -137,6 +144,45 @@ public class Bin2Json {
         }
     }
 
+    /**
+     * Convert {@link String} in hexadecimal string format to JSON text.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON text, same as the string representation of {@link #convert(String)}
+     * @throws ConversionException
+     */
+    public String convertToString(String hexString) throws ConversionException {
+        try {
+            return convertToString(HexUtils.hexToBytes(hexString));
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert byte array to JSON text.
+     *
+     * @param data Data in byte array format.
+     * @return JSON text, same as the string representation of {@link #convert(byte[])}
+     * @throws ConversionException
+     */
+    public String convertToString(byte[] data) throws ConversionException {
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            final StringBuilder json = new StringBuilder(64);
+            writeStruct(json, parser.parse(data));
+            if (logger.isTraceEnabled()) {
+                Duration duration = Duration.between(start, LocalDateTime.now());
+                logger.trace("Conversion time={}, json={}", duration, json);
+            }
+            return json.toString();
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
     private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
         try {
             LocalDateTime start = LocalDateTime.now();
@@ -236,4 +282,141 @@ public class Bin2Json {
         }
         return jsn;
     }
+
+    private void writeStruct(final StringBuilder json, final JBBPFieldStruct struct) throws ConversionException {
+        final JBBPAbstractField[] fields = struct.getArray();
+        json.append('{');
+        int unnamed = 0;
+        for (final JBBPAbstractField f : fields) {
+            if (f.getFieldName() == null) {
+                unnamed++;
+            }
+        }
+        if (unnamed > 1) {
+            // like a JsonObject, keep the position of the first unnamed field and the value of the last one
+            final Map<String, JBBPAbstractField> byName = new LinkedHashMap<>();
+            for (final JBBPAbstractField f : fields) {
+                byName.put(getFieldName(f), f);
+            }
+            writeFields(json, byName.values().toArray(new JBBPAbstractField[0]));
+        } else {
+            writeFields(json, fields);
+        }
+        json.append('}');
+    }
+
+    private void writeFields(final StringBuilder json, final JBBPAbstractField[] fields) throws ConversionException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            writeField(json, fields[i]);
+        }
+    }
+
+    private void writeField(final StringBuilder json, final JBBPAbstractField field) throws ConversionException {
+        writeString(json, getFieldName(field));
+        json.append(':');
+        if (field instanceof JBBPAbstractArrayField) {
+            json.append('[');
+            if (field instanceof JBBPFieldArrayBit) {
+                final byte[] array = ((JBBPFieldArrayBit) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean) {
+                final boolean[] array = ((JBBPFieldArrayBoolean) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayByte) {
+                final byte[] array = ((JBBPFieldArrayByte) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayInt) {
+                final int[] array = ((JBBPFieldArrayInt) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayLong) {
+                final long[] array = ((JBBPFieldArrayLong) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayShort) {
+                final short[] array = ((JBBPFieldArrayShort) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayStruct) {
+                final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
+                for (int i = 0; i < array.size(); i++) {
+                    // every element is wrapped in an object with the element name, like convertToJSon does
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    appendSeparator(json, i).append('{');
+                    writeString(json, getFieldName(element));
+                    json.append(':');
+                    writeStruct(json, element);
+                    json.append('}');
+                }
+            } else if (field instanceof JBBPFieldArrayUByte) {
+                final byte[] array = ((JBBPFieldArrayUByte) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i] & 0xFF);
+                }
+            } else if (field instanceof JBBPFieldArrayUShort) {
+                final short[] array = ((JBBPFieldArrayUShort) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(json, i).append(array[i] & 0xFFFF);
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            json.append(']');
+        } else if (field instanceof JBBPFieldBit) {
+            json.append(((JBBPFieldBit) field).getAsInt());
+        } else if (field instanceof JBBPFieldBoolean) {
+            json.append(((JBBPFieldBoolean) field).getAsBool());
+        } else if (field instanceof JBBPFieldByte) {
+            json.append(((JBBPFieldByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldInt) {
+            json.append(((JBBPFieldInt) field).getAsInt());
+        } else if (field instanceof JBBPFieldLong) {
+            json.append(((JBBPFieldLong) field).getAsLong());
+        } else if (field instanceof JBBPFieldShort) {
+            json.append(((JBBPFieldShort) field).getAsInt());
+        } else if (field instanceof JBBPFieldStruct) {
+            writeStruct(json, (JBBPFieldStruct) field);
+        } else if (field instanceof JBBPFieldUByte) {
+            json.append(((JBBPFieldUByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldUShort) {
+            json.append(((JBBPFieldUShort) field).getAsInt());
+        } else {
+            throw new ConversionException(String.format("Unexpected field '%s'", field));
+        }
+    }
+
+    private static StringBuilder appendSeparator(final StringBuilder json, final int index) {
+        return index > 0 ? json.append(',') : json;
+    }
+
+    private static String getFieldName(final JBBPAbstractField field) {
+        return field.getFieldName() == null ? "nonamed" : field.getFieldName();
+    }
+
+    private static void writeString(final StringBuilder json, final String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
 }
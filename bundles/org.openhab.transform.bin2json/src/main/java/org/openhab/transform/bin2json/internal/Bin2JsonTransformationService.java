@@ -12,6 +12,9 @@
  */
 package org.openhab.transform.bin2json.internal;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
@@ -24,14 +27,21 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * hexa string formatted binary data by Binary Block Parser syntax to JSON format.
  *
+ * Parsers are prepared once per syntax and cached, as preparing compiles the whole parser rule.
+ *
  * @author Pauli Anttila - Initial contribution
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=BIN2JSON" })
 public class Bin2JsonTransformationService implements TransformationService {
 
+    /** maximum number of cached parsers, the cache is cleared when it grows beyond */
+    private static final int MAX_CACHED_PARSERS = 256;
+
     private Logger logger = LoggerFactory.getLogger(Bin2JsonTransformationService.class);
 
+    private final Map<String, Bin2Json> parserCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by Java Binary Block Parser syntax.
      *
@@ -46,7 +56,7 @@ public class Bin2JsonTransformationService implements TransformationService {
         String result = "";
 
         try {
-            result = String.valueOf(new Bin2Json(syntax).convert(source));
+            result = getParser(syntax).convertToString(source);
             logger.debug("transformation resulted '{}'", result);
             return result;
         } catch (ConversionException e) {
@@ -56,4 +66,17 @@ public class Bin2JsonTransformationService implements TransformationService {
                     result);
         }
     }
+
+    // Visible for testing
+    Bin2Json getParser(String syntax) throws ConversionException {
+        Bin2Json parser = parserCache.get(syntax);
+        if (parser == null) {
+            parser = new Bin2Json(syntax);
+            if (parserCache.size() >= MAX_CACHED_PARSERS) {
+                parserCache.clear();
+            }
+            parserCache.put(syntax, parser);
+        }
+        return parser;
+    }
 }
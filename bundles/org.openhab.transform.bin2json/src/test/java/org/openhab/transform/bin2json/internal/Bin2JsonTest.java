@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.core.util.HexUtils;
+
+/**
+ * Tests that {@link Bin2Json#convertToString} writes the same JSON text as {@link Bin2Json#convert}.
+ *
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTest {
+
+    @Test
+    public void testParserRuleError() {
+        assertThrows(ConversionException.class, () -> new Bin2Json("byte a byte b ubyte c;"));
+    }
+
+    @Test
+    public void testHexStringData() throws ConversionException {
+        assertConvertsEqually("byte a; byte b; ubyte c;", "03FAFF", "{\"a\":3,\"b\":-6,\"c\":255}");
+    }
+
+    @Test
+    public void testByteArrayAndInputStreamData() throws ConversionException {
+        Bin2Json bin2Json = new Bin2Json("byte a; byte b; ubyte c;");
+        byte[] data = HexUtils.hexToBytes("03FAFF");
+
+        assertEquals("{\"a\":3,\"b\":-6,\"c\":255}", bin2Json.convertToString(data));
+        assertEquals(bin2Json.convert(data).toString(), bin2Json.convertToString(data));
+        assertEquals(bin2Json.convert(new ByteArrayInputStream(data)).toString(), bin2Json.convertToString(data));
+    }
+
+    @Test
+    public void testAllFieldTypes() throws ConversionException {
+        assertConvertsEqually("bit:4 a; bit:4 b; bool c; byte d; ubyte e; short f; ushort g; int h; long i;",
+                "A5" + "01" + "FA" + "FF" + "8001" + "FFFE" + "80000001" + "8000000000000001");
+    }
+
+    @Test
+    public void testAllArrayTypes() throws ConversionException {
+        assertConvertsEqually(
+                "bit:4 [2] a; bool [2] b; byte [2] c; ubyte [2] d; short [2] e; ushort [2] f; int [2] g; long [2] h;",
+                "A5" + "0100" + "FA05" + "FF01" + "80010002" + "FFFE0001" + "8000000100000002"
+                        + "80000000000000010000000000000002");
+    }
+
+    @Test
+    public void testEmptyAndGreedyArrays() throws ConversionException {
+        assertConvertsEqually("byte n; byte [n] a; ubyte [_] b;", "00FF80");
+        assertConvertsEqually("byte a; ubyte [_] b;", "01");
+    }
+
+    @Test
+    public void testMultipleUnnamedFields() throws ConversionException {
+        // the last unnamed value wins but keeps the position of the first unnamed field, as in a JsonObject
+        assertConvertsEqually("byte a; byte; ubyte; short b; byte;", "0102030004" + "05",
+                "{\"a\":1,\"nonamed\":5,\"b\":4}");
+        assertConvertsEqually("byte; byte [2]; s { byte; ubyte; }", "01" + "0203" + "04FF");
+    }
+
+    @Test
+    public void testSingleUnnamedField() throws ConversionException {
+        assertConvertsEqually("byte a; ubyte; byte b;", "01FF02", "{\"a\":1,\"nonamed\":255,\"b\":2}");
+    }
+
+    @Test
+    public void testNestedStructs() throws ConversionException {
+        assertConvertsEqually("byte a; s { ubyte b; t { short c; bool d; } }", "01" + "FF" + "8001" + "01");
+    }
+
+    @Test
+    public void testNestedStructArrays() throws ConversionException {
+        assertConvertsEqually("byte n; s [2] { byte a; t [2] { ubyte b; short; } }",
+                "07" + "01" + "0A0001" + "0B0002" + "02" + "0C0003" + "0D0004");
+        assertConvertsEqually("byte n; s [n] { byte a; }", "03" + "010203");
+        assertConvertsEqually("byte n; s [n] { byte a; }", "00");
+    }
+
+    private void assertConvertsEqually(String rule, String hexString) throws ConversionException {
+        Bin2Json bin2Json = new Bin2Json(rule);
+
+        assertEquals(bin2Json.convert(hexString).toString(), bin2Json.convertToString(hexString));
+    }
+
+    private void assertConvertsEqually(String rule, String hexString, String expectedJson)
+            throws ConversionException {
+        assertConvertsEqually(rule, hexString);
+        assertEquals(expectedJson, new Bin2Json(rule).convertToString(hexString));
+    }
+}
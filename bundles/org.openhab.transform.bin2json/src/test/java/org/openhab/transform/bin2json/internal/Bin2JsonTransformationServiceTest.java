@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTransformationServiceTest {
+
+    private Bin2JsonTransformationService processor;
+
+    @BeforeEach
+    public void init() {
+        processor = new Bin2JsonTransformationService();
+    }
+
+    @Test
+    public void testTransform() throws TransformationException {
+        assertEquals("{\"a\":3,\"b\":-6,\"c\":255}", processor.transform("byte a; byte b; ubyte c;", "03FAFF"));
+        assertEquals("{\"a\":1,\"b\":-1,\"c\":0}", processor.transform("byte a; byte b; ubyte c;", "01FF00"));
+    }
+
+    @Test
+    public void testTransformWithIllegalParserRule() {
+        assertThrows(TransformationException.class, () -> processor.transform("byte a byte b ubyte c;", "03FAFF"));
+    }
+
+    @Test
+    public void testParserIsReusedForSameSyntax() throws ConversionException {
+        Bin2Json parser = processor.getParser("byte a;");
+
+        assertSame(parser, processor.getParser("byte a;"));
+        assertNotSame(parser, processor.getParser("byte b;"));
+    }
+
+    @Test
+    public void testParserCacheIsBounded() throws ConversionException, TransformationException {
+        Bin2Json first = processor.getParser("byte a0;");
+        for (int i = 1; i < 300; i++) {
+            processor.getParser("byte a" + i + ";");
+        }
+
+        assertNotSame(first, processor.getParser("byte a0;"));
+        assertEquals("{\"a299\":1}", processor.transform("byte a299;", "01"));
+    }
+
+    @Test
+    public void testIllegalParserRuleIsNotCached() {
+        assertThrows(ConversionException.class, () -> processor.getParser("byte a byte b;"));
+        assertThrows(ConversionException.class, () -> processor.getParser("byte a byte b;"));
+    }
+}
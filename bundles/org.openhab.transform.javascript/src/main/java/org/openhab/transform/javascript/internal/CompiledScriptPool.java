@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * Pool of compiled versions of one JavaScript file.
+ *
+ * Script engines are not thread safe, so every compiled script of the pool has its own engine and is used by one
+ * evaluation at a time. Up to {@code maxSize} engines are created on demand; further evaluations wait for a free one.
+ *
+ * A running script can't be stopped, so a timeout only abandons it. The engine of an abandoned script keeps its
+ * place in the pool until the script has finished and is dropped then, so runaway scripts can't make the pool create
+ * more than {@code maxSize} engines.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CompiledScriptPool {
+
+    /**
+     * Creates the script engines of a pool.
+     */
+    @FunctionalInterface
+    public interface EngineFactory {
+        ScriptEngine createEngine() throws ScriptException;
+    }
+
+    /** how often a waiting evaluation checks whether an engine can be created instead */
+    private static final long ACQUIRE_POLL_MILLIS = 100;
+
+    private final String name;
+    private final String script;
+    private final int maxSize;
+    private final EngineFactory engineFactory;
+    private final BlockingQueue<CompiledScript> idle = new LinkedBlockingQueue<>();
+
+    /** number of engines that exist, idle or in use */
+    private int size;
+
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Creates a pool and compiles the script once, so compile errors are reported right away.
+     *
+     * @param name name of the script file
+     * @param script the JavaScript source
+     * @param maxSize maximum number of engines
+     * @param engineFactory factory for the engines
+     * @throws ScriptException if the script cannot be compiled
+     */
+    public CompiledScriptPool(String name, String script, int maxSize, EngineFactory engineFactory)
+            throws ScriptException {
+        this.name = name;
+        this.script = script;
+        this.maxSize = Math.max(1, maxSize);
+        this.engineFactory = engineFactory;
+        idle.add(compile());
+        size = 1;
+    }
+
+    /**
+     * Evaluates the script with the given input.
+     *
+     * @param input value of the 'input' variable of the script
+     * @param timeoutMillis maximum time to wait for a free engine and for the result, 0 to evaluate without timeout
+     *            in the calling thread
+     * @param executor executor for evaluations with timeout
+     * @return the result of the script
+     * @throws TransformationException if the evaluation failed or timed out
+     */
+    public String eval(String input, long timeoutMillis, ExecutorService executor) throws TransformationException {
+        final long acquireStart = System.nanoTime();
+        final CompiledScript compiledScript = acquire(timeoutMillis);
+        final long start = System.nanoTime();
+        boolean abandoned = false;
+        try {
+            final Bindings bindings = compiledScript.getEngine().createBindings();
+            bindings.put("input", input);
+            if (timeoutMillis <= 0) {
+                return String.valueOf(compiledScript.eval(bindings));
+            }
+            // true while the caller waits for the result, whoever resets it first decides about the engine
+            final AtomicBoolean awaited = new AtomicBoolean(true);
+            final Future<@Nullable Object> future;
+            try {
+                future = executor.submit(() -> evalAwaited(compiledScript, bindings, awaited));
+            } catch (RejectedExecutionException e) {
+                errors.incrementAndGet();
+                throw new TransformationException("JavaScript '" + name + "' could not be scheduled", e);
+            }
+            final long remainingMillis = timeoutMillis
+                    - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - acquireStart);
+            try {
+                return String.valueOf(future.get(Math.max(1, remainingMillis), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                if (awaited.compareAndSet(true, false)) {
+                    abandoned = true;
+                    timeouts.incrementAndGet();
+                    throw new TransformationException(
+                            "JavaScript '" + name + "' did not finish within " + timeoutMillis + " ms");
+                }
+                // the script has just finished
+                return String.valueOf(getFinished(future));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandoned = awaited.compareAndSet(true, false);
+                throw new TransformationException("Interrupted while executing JavaScript '" + name + "'", e);
+            } catch (ExecutionException e) {
+                throw toScriptException(e);
+            }
+        } catch (ScriptException e) {
+            errors.incrementAndGet();
+            throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            evaluations.incrementAndGet();
+            totalNanos.addAndGet(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+            if (!abandoned) {
+                idle.add(compiledScript);
+            }
+        }
+    }
+
+    /**
+     * Runs the script in the executor. If the caller doesn't wait for the result anymore, the engine is dropped
+     * afterwards, or right away if the evaluation didn't start before.
+     */
+    private @Nullable Object evalAwaited(CompiledScript compiledScript, Bindings bindings, AtomicBoolean awaited)
+            throws ScriptException {
+        try {
+            return awaited.get() ? compiledScript.eval(bindings) : null;
+        } finally {
+            if (!awaited.compareAndSet(true, false)) {
+                release();
+            }
+        }
+    }
+
+    private @Nullable Object getFinished(Future<@Nullable Object> future)
+            throws ScriptException, TransformationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while executing JavaScript '" + name + "'", e);
+        } catch (ExecutionException e) {
+            throw toScriptException(e);
+        }
+    }
+
+    private ScriptException toScriptException(ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof ScriptException) {
+            return (ScriptException) cause;
+        }
+        final ScriptException exception = new ScriptException(String.valueOf(cause));
+        exception.initCause(cause);
+        return exception;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of evaluations, including failed ones
+     */
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    /**
+     * @return number of evaluations that failed with an error
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return number of evaluations that timed out
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return average execution time in milliseconds
+     */
+    public double getAverageMillis() {
+        final long count = evaluations.get();
+        return count == 0 ? 0 : totalNanos.get() / 1e6 / count;
+    }
+
+    /**
+     * @return longest execution time in milliseconds
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    private CompiledScript acquire(long timeoutMillis) throws TransformationException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            CompiledScript compiledScript = idle.poll();
+            if (compiledScript != null) {
+                return compiledScript;
+            }
+            if (reserve()) {
+                try {
+                    return compile();
+                } catch (ScriptException e) {
+                    release();
+                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
+                            e);
+                }
+            }
+            long waitMillis = ACQUIRE_POLL_MILLIS;
+            if (timeoutMillis > 0) {
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    timeouts.incrementAndGet();
+                    throw new TransformationException(
+                            "No engine for JavaScript '" + name + "' became free within " + timeoutMillis + " ms");
+                }
+                waitMillis = Math.min(waitMillis, remainingMillis);
+            }
+            try {
+                compiledScript = idle.poll(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransformationException("Interrupted while waiting for JavaScript '" + name + "'", e);
+            }
+            if (compiledScript != null) {
+                return compiledScript;
+            }
+        }
+    }
+
+    private synchronized boolean reserve() {
+        if (size < maxSize) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void release() {
+        size--;
+    }
+
+    private CompiledScript compile() throws ScriptException {
+        return ((Compilable) engineFactory.createEngine()).compile(script);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: evaluations=%d, errors=%d, timeouts=%d, average=%.2f ms, max=%.2f ms", name,
+                getEvaluations(), getErrors(), getTimeouts(), getAverageMillis(), getMaxMillis());
+    }
+}
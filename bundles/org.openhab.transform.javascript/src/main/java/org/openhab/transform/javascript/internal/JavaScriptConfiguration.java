@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Optional settings of the {@link JavaScriptEngineManager}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JavaScriptConfiguration {
+    /** maximum execution time of a script in milliseconds, 0 for no limit */
+    public int timeout = 0;
+    /** maximum number of engines per script, also the number of threads for evaluations with timeout */
+    public int poolSize = Runtime.getRuntime().availableProcessors();
+}
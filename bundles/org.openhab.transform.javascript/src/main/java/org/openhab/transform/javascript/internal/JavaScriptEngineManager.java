@@ -13,71 +13,149 @@
 package org.openhab.transform.javascript.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-import javax.script.Compilable;
-import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.config.core.Configuration;
 import org.openhab.core.transform.TransformationException;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple cache for compiled JavaScript files.
  *
+ * Every file is compiled into a {@link CompiledScriptPool} of up to one engine per processor core, so transformations
+ * by the same script can run in parallel. Cached pools are looked up without locking.
+ *
+ * Evaluations with a timeout run on a pool of {@code poolSize} threads. Its queue needs no bound: every queued
+ * evaluation holds an engine of a script pool, and their number is limited as well.
+ *
  * @author Thomas Kordelle - pre compiled scripts
  *
  */
 @NonNullByDefault
-@Component(service = JavaScriptEngineManager.class)
+@Component(service = JavaScriptEngineManager.class, configurationPid = "org.openhab.transform.javascript")
 public class JavaScriptEngineManager {
 
+    private static final JavaScriptConfiguration DEFAULT_CONFIGURATION = new JavaScriptConfiguration();
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, CompiledScriptPool> compiledScriptMap = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_CONFIGURATION.poolSize,
+            DEFAULT_CONFIGURATION.poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("javascript-transformation", true));
+
+    private volatile long timeout = DEFAULT_CONFIGURATION.timeout;
+    private volatile int poolSize = DEFAULT_CONFIGURATION.poolSize;
+
+    public JavaScriptEngineManager() {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Activate
+    protected void activate(@Nullable Map<String, Object> config) {
+        modified(config);
+    }
+
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        if (config == null) {
+            return;
+        }
+        final JavaScriptConfiguration configuration = new Configuration(config).as(JavaScriptConfiguration.class);
+        timeout = configuration.timeout;
+        final int newPoolSize = Math.max(1, configuration.poolSize);
+        if (newPoolSize != poolSize) {
+            poolSize = newPoolSize;
+            resizeExecutor(newPoolSize);
+            compiledScriptMap.clear();
+        }
+        logger.debug("JavaScript transformation configured with timeout={} ms, poolSize={}", timeout, poolSize);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        getScripts().forEach(pool -> logger.debug("JavaScript statistics {}", pool));
+        executor.shutdownNow();
+        compiledScriptMap.clear();
+    }
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
+     * Evaluates a JavaScript file with the given input.
+     *
+     * @param filename name of the JavaScript file
+     * @param input value of the 'input' variable of the script
+     * @return the result of the script
+     * @throws TransformationException if loading or executing the script failed
+     */
+    protected String eval(final String filename, final String input) throws TransformationException {
+        final CompiledScriptPool pool = getScript(filename);
+        final String result = pool.eval(input, timeout, executor);
+        logger.trace("JavaScript statistics {}", pool);
+        return result;
+    }
+
+    /**
+     * Get a pool of pre compiled scripts {@link CompiledScriptPool} from cache. If it is not in the cache, then load
+     * it from storage and put a pre compiled version into the cache.
      *
      * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
+     * @return a pool of pre compiled scripts {@link CompiledScriptPool}
      * @throws TransformationException if compile of JavaScript failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
+    protected CompiledScriptPool getScript(final String filename) throws TransformationException {
+        CompiledScriptPool pool = compiledScriptMap.get(filename);
+        if (pool != null) {
+            logger.debug("Loading JavaScript {} from cache.", filename);
+            return pool;
+        }
         synchronized (compiledScriptMap) {
-            CompiledScript compiledScript = compiledScriptMap.get(filename);
-            if (compiledScript != null) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScript;
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
+            pool = compiledScriptMap.get(filename);
+            if (pool != null) {
+                return pool;
+            }
+            final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+            logger.debug("Loading script {} from storage ", path);
+            try {
+                final String script = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+                pool = new CompiledScriptPool(filename, script, poolSize, this::createEngine);
+                logger.debug("Putting compiled JavaScript {} to cache.", filename);
+                compiledScriptMap.put(filename, pool);
+                return pool;
+            } catch (IOException | ScriptException e) {
+                throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
             }
         }
     }
 
+    /**
+     * @return the cached scripts with their execution statistics
+     */
+    public Collection<CompiledScriptPool> getScripts() {
+        return List.copyOf(compiledScriptMap.values());
+    }
+
     /**
      * remove a pre compiled script from cache.
      *
@@ -87,4 +165,28 @@ public class JavaScriptEngineManager {
         logger.debug("Removing JavaScript {} from cache.", fileName);
         compiledScriptMap.remove(fileName);
     }
+
+    private ScriptEngine createEngine() throws ScriptException {
+        // the engine manager isn't documented to be thread safe
+        synchronized (manager) {
+            final ScriptEngine engine = manager.getEngineByName("javascript");
+            if (engine == null) {
+                throw new ScriptException("No JavaScript engine available");
+            }
+            return engine;
+        }
+    }
+
+    private void resizeExecutor(int threads) {
+        // the core size must never exceed the maximum size
+        synchronized (executor) {
+            if (threads > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(threads);
+                executor.setCorePoolSize(threads);
+            } else {
+                executor.setCorePoolSize(threads);
+                executor.setMaximumPoolSize(threads);
+            }
+        }
+    }
 }
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * Tests the {@link CompiledScriptPool} with a fake script engine, which returns its input, fails for the input
+ * "fail" and blocks for the input "block" until {@link #unblock} is counted down.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CompiledScriptPoolTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private final AtomicInteger createdEngines = new AtomicInteger();
+    private final AtomicInteger runningScripts = new AtomicInteger();
+    private final AtomicInteger maxRunningScripts = new AtomicInteger();
+    private final Semaphore blockedScripts = new Semaphore(0);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    private @NonNullByDefault({}) ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        unblock.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testEval() throws ScriptException, TransformationException {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "input", 2, FakeEngine::new);
+
+        assertEquals("a", pool.eval("a", 0, executor));
+        assertEquals("b", pool.eval("b", 1000, executor));
+        assertEquals(2, pool.getEvaluations());
+        assertEquals(0, pool.getErrors());
+        assertEquals(0, pool.getTimeouts());
+        assertEquals(1, createdEngines.get());
+    }
+
+    @Test
+    public void testScriptErrorReturnsEngine() throws ScriptException, TransformationException {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "input", 1, FakeEngine::new);
+
+        assertThrows(TransformationException.class, () -> pool.eval("fail", 0, executor));
+        assertThrows(TransformationException.class, () -> pool.eval("fail", 1000, executor));
+        assertEquals(2, pool.getErrors());
+
+        assertEquals("a", pool.eval("a", 1000, executor));
+        assertEquals(1, createdEngines.get());
+    }
+
+    @Test
+    public void testTimeoutKeepsEngineReservedUntilScriptFinishes()
+            throws ScriptException, TransformationException, InterruptedException {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "input", 1, FakeEngine::new);
+
+        assertThrows(TransformationException.class, () -> pool.eval("block", 100, executor));
+        assertEquals(1, pool.getTimeouts());
+        assertTrue(blockedScripts.tryAcquire(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        // the abandoned script still runs, so neither its engine nor a new one may be used
+        assertThrows(TransformationException.class, () -> pool.eval("a", 200, executor));
+        assertEquals(2, pool.getTimeouts());
+        assertEquals(1, createdEngines.get());
+
+        unblock.countDown();
+        assertEquals("a", pool.eval("a", TimeUnit.SECONDS.toMillis(WAIT_SECONDS), executor));
+        assertEquals(2, createdEngines.get());
+    }
+
+    @Test
+    public void testAcquireTimesOutWhenAllEnginesAreBusy()
+            throws ScriptException, TransformationException, InterruptedException {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "input", 2, FakeEngine::new);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    pool.eval("block", 0, executor);
+                } catch (TransformationException e) {
+                    // checked by the engine count below
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        assertTrue(blockedScripts.tryAcquire(2, WAIT_SECONDS, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        assertThrows(TransformationException.class, () -> pool.eval("a", 200, executor));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        assertEquals(1, pool.getTimeouts());
+
+        unblock.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(WAIT_SECONDS));
+        }
+        assertEquals("a", pool.eval("a", 1000, executor));
+        assertEquals(2, createdEngines.get());
+    }
+
+    @Test
+    public void testSizeNeverExceedsMaxSize() throws ScriptException, TransformationException, InterruptedException {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "input", 2, FakeEngine::new);
+
+        // all evaluations time out, two of them abandon a running script
+        evalConcurrently(pool, "block", 100, 10);
+        assertTrue(blockedScripts.tryAcquire(2, WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(10, pool.getTimeouts());
+        assertEquals(2, createdEngines.get());
+
+        // the engines of the abandoned scripts are replaced after they have finished
+        unblock.countDown();
+        evalConcurrently(pool, "a", TimeUnit.SECONDS.toMillis(WAIT_SECONDS), 20);
+        assertEquals(10, pool.getTimeouts());
+        assertEquals(0, pool.getErrors());
+        assertTrue(createdEngines.get() <= 4);
+        assertTrue(maxRunningScripts.get() <= 2);
+    }
+
+    private void evalConcurrently(CompiledScriptPool pool, String input, long timeoutMillis, int count)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    pool.eval(input, timeoutMillis, executor);
+                } catch (InterruptedException | TransformationException e) {
+                    // checked by the counters of the pool
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(WAIT_SECONDS));
+        }
+    }
+
+    private class FakeEngine extends AbstractScriptEngine implements Compilable {
+
+        @Override
+        public CompiledScript compile(@Nullable String script) {
+            createdEngines.incrementAndGet();
+            return new CompiledScript() {
+                @Override
+                public @Nullable Object eval(ScriptContext context) throws ScriptException {
+                    int running = runningScripts.incrementAndGet();
+                    maxRunningScripts.accumulateAndGet(running, Math::max);
+                    try {
+                        return evalInput((String) context.getAttribute("input"));
+                    } finally {
+                        runningScripts.decrementAndGet();
+                    }
+                }
+
+                @Override
+                public ScriptEngine getEngine() {
+                    return FakeEngine.this;
+                }
+            };
+        }
+
+        private String evalInput(String input) throws ScriptException {
+            if ("fail".equals(input)) {
+                throw new ScriptException("failed");
+            }
+            if ("block".equals(input)) {
+                blockedScripts.release();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return input;
+        }
+
+        @Override
+        public CompiledScript compile(@Nullable Reader script) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @Nullable Object eval(@Nullable String script, @Nullable ScriptContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @Nullable Object eval(@Nullable Reader reader, @Nullable ScriptContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        @Override
+        public @Nullable ScriptEngineFactory getFactory() {
+            return null;
+        }
+    }
+}
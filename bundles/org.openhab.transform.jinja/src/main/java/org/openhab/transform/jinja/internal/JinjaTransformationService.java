@@ -13,12 +13,11 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,11 +30,20 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * <p>
+ * Templates are parsed once and cached. <code>value_json</code> is bound to a lazy view of the JSON value, so
+ * only the fields a template accesses are converted.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -43,10 +51,17 @@ import com.hubspot.jinjava.Jinjava;
 @Component(property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    /** maximum number of cached templates, the cache is cleared when it grows beyond */
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private Jinjava jinjava = new Jinjava();
 
+    private final Map<String, Node> templateCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>value</code> by Jinja template.
      *
@@ -62,46 +77,50 @@ public class JinjaTransformationService implements TransformationService {
         bindings.put("value", value);
 
         try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
+            JsonNode tree = OBJECT_MAPPER.readTree(value);
+            if (tree != null) {
+                bindings.put("value_json", LazyJsonBinding.toObject(tree));
+            }
         } catch (IOException e) {
             // ok, then value_json is null...
         }
 
-        String transformationResult = jinjava.render(template, bindings);
+        String transformationResult = render(template, bindings);
 
         logger.debug("transformation resulted in '{}'", transformationResult);
 
         return transformationResult;
     }
 
-    private static @Nullable Object toObject(JsonNode node) {
-        switch (node.getNodeType()) {
-            case ARRAY: {
-                List<@Nullable Object> result = new ArrayList<>();
-                for (JsonNode el : node) {
-                    result.add(toObject(el));
-                }
-                return result;
-            }
-            case NUMBER:
-                return node.decimalValue();
-            case OBJECT: {
-                Map<String, @Nullable Object> result = new HashMap<>();
-                Iterator<Entry<String, JsonNode>> it = node.fields();
-                while (it.hasNext()) {
-                    Entry<String, JsonNode> field = it.next();
-                    result.put(field.getKey(), toObject(field.getValue()));
+    private String render(String template, Map<String, @Nullable Object> bindings) throws TransformationException {
+        Context context = new Context(jinjava.getGlobalContext(), bindings);
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, jinjava.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            Node root = templateCache.get(template);
+            if (root == null) {
+                root = interpreter.parse(template);
+                // templates with syntax errors are not cached, they would not report their errors again
+                checkErrors(template, interpreter);
+                if (templateCache.size() >= MAX_CACHED_TEMPLATES) {
+                    templateCache.clear();
                 }
-                return result;
+                templateCache.put(template, root);
             }
-            case STRING:
-                return node.asText();
-            case BOOLEAN:
-                return node.asBoolean();
-            case NULL:
-            default:
-                return null;
+            String result = interpreter.render(root);
+            checkErrors(template, interpreter);
+            return result;
+        } finally {
+            JinjavaInterpreter.popCurrent();
+        }
+    }
+
+    private void checkErrors(String template, JinjavaInterpreter interpreter) throws TransformationException {
+        List<TemplateError> fatalErrors = interpreter.getErrors().stream()
+                .filter(error -> error.getSeverity() == ErrorType.FATAL).collect(Collectors.toList());
+        if (!fatalErrors.isEmpty()) {
+            throw new TransformationException("Rendering template '" + template + "' failed: " + fatalErrors.stream()
+                    .map(TemplateError::getMessage).collect(Collectors.joining(", ")));
         }
     }
 }
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jinja.internal;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Exposes a {@link JsonNode} to templates as plain Java objects. Objects and arrays are wrapped in read-only
+ * {@link Map} and {@link java.util.List} views, which convert their elements only when they are accessed, so a
+ * template that reads a single field of a large message doesn't convert the whole message.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LazyJsonBinding {
+
+    private LazyJsonBinding() {
+    }
+
+    public static @Nullable Object toObject(JsonNode node) {
+        switch (node.getNodeType()) {
+            case ARRAY:
+                return new JsonArrayView(node);
+            case NUMBER:
+                return node.decimalValue();
+            case OBJECT:
+                return new JsonObjectView(node);
+            case STRING:
+                return node.asText();
+            case BOOLEAN:
+                return node.asBoolean();
+            case NULL:
+            default:
+                return null;
+        }
+    }
+
+    private static class JsonArrayView extends AbstractList<@Nullable Object> {
+        private final JsonNode node;
+        private final @Nullable Object[] values;
+        private final boolean[] converted;
+
+        private JsonArrayView(JsonNode node) {
+            this.node = node;
+            this.values = new Object[node.size()];
+            this.converted = new boolean[node.size()];
+        }
+
+        @Override
+        public @Nullable Object get(int index) {
+            if (index < 0 || index >= values.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + values.length);
+            }
+            if (!converted[index]) {
+                values[index] = toObject(node.get(index));
+                converted[index] = true;
+            }
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static class JsonObjectView extends AbstractMap<String, @Nullable Object> {
+        private final JsonNode node;
+        private final Map<String, @Nullable Object> values = new HashMap<>();
+
+        private JsonObjectView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(@Nullable Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            String name = (String) key;
+            if (values.containsKey(name)) {
+                return values.get(name);
+            }
+            JsonNode child = node.get(name);
+            if (child == null) {
+                return null;
+            }
+            Object value = toObject(child);
+            values.put(name, value);
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return key instanceof String && node.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public Set<Entry<String, @Nullable Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, @Nullable Object>> iterator() {
+                    Iterator<String> names = node.fieldNames();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, @Nullable Object> next() {
+                            String name = names.next();
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return node.size();
+                }
+            };
+        }
+    }
+}
@@ -59,4 +59,30 @@ public class JinjaTransformationServiceTest {
         // Asserts
         assertEquals("Hello world!", transformedResponse);
     }
+
+    @Test
+    public void testCachedTemplateWithDifferentValues() throws TransformationException {
+        String template = "{{ value_json.sensor.values[1] }} {{ value_json.unit }}";
+
+        // Asserts
+        assertEquals("2 C", processor.transform(template, "{\"sensor\":{\"values\":[1,2,3]},\"unit\":\"C\"}"));
+        assertEquals("5 F", processor.transform(template, "{\"sensor\":{\"values\":[4,5]},\"unit\":\"F\"}"));
+    }
+
+    @Test
+    public void testLazyJsonAccess() throws TransformationException {
+        String json = "{\"a\":1,\"b\":[true,\"x\"]}";
+        // method under test
+        String transformedResponse = processor.transform(
+                "{{ value_json.b|length }} {{ value_json.b[1] }} {{ value_json.missing|default('n/a') }}", json);
+
+        // Asserts
+        assertEquals("2 x n/a", transformedResponse);
+    }
+
+    @Test
+    public void testInvalidTemplate() {
+        assertThrows(TransformationException.class, () -> processor.transform("{% for %}", "world"));
+        assertThrows(TransformationException.class, () -> processor.transform("{% for %}", "world"));
+    }
 }
@@ -12,7 +12,9 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +26,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -33,6 +36,9 @@ import com.jayway.jsonpath.PathNotFoundException;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by JSonPath Expressions.
  *
+ * Compiled expressions are kept in an LRU cache. Parsed documents are kept for a short time, so that applying
+ * several expressions to the same message (e.g. one per channel) parses the message only once.
+ *
  * @author Gaël L'hopital
  * @author Sebastian Janzen
  *
@@ -41,8 +47,41 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(property = { "openhab.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    private static final int PATH_CACHE_SIZE = 256;
+    private static final int DOCUMENT_CACHE_SIZE = 8;
+    private static final long DOCUMENT_CACHE_TTL_MILLIS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> pathCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, JsonPath> eldest) {
+            return size() > PATH_CACHE_SIZE;
+        }
+    };
+
+    private final @Nullable CachedDocument[] documentCache = new CachedDocument[DOCUMENT_CACHE_SIZE];
+    private int nextDocumentSlot = 0;
+
+    private static class CachedDocument {
+        private final String source;
+        private final DocumentContext document;
+        private final long parsedAt;
+
+        private CachedDocument(String source, DocumentContext document, long parsedAt) {
+            this.source = source;
+            this.document = document;
+            this.parsedAt = parsedAt;
+        }
+
+        private boolean matches(String otherSource, long now) {
+            return now - parsedAt <= DOCUMENT_CACHE_TTL_MILLIS && (source == otherSource
+                    || (source.hashCode() == otherSource.hashCode() && source.equals(otherSource)));
+        }
+    }
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,7 +99,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = getDocument(source).read(getPath(jsonPathExpression));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -76,6 +115,35 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private JsonPath getPath(String jsonPathExpression) {
+        synchronized (pathCache) {
+            JsonPath path = pathCache.get(jsonPathExpression);
+            if (path == null) {
+                path = JsonPath.compile(jsonPathExpression);
+                pathCache.put(jsonPathExpression, path);
+            }
+            return path;
+        }
+    }
+
+    private DocumentContext getDocument(String source) {
+        long now = System.currentTimeMillis();
+        synchronized (documentCache) {
+            for (CachedDocument cached : documentCache) {
+                if (cached != null && cached.matches(source, now)) {
+                    return cached.document;
+                }
+            }
+        }
+        // parse outside the lock, a document parsed twice concurrently doesn't hurt
+        DocumentContext document = JsonPath.parse(source);
+        synchronized (documentCache) {
+            documentCache[nextDocumentSlot] = new CachedDocument(source, document, now);
+            nextDocumentSlot = (nextDocumentSlot + 1) % DOCUMENT_CACHE_SIZE;
+        }
+        return document;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
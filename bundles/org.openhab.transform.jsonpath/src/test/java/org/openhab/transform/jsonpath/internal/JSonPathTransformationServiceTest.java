@@ -127,4 +127,31 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSeveralPathsOnSameDocument() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+        assertEquals("[1, 2]", processor.transform("$.*.id", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+    }
+
+    @Test
+    public void testChangedDocumentIsParsedAgain() throws TransformationException {
+        assertEquals("1", processor.transform("$.value", "{\"value\":1}"));
+        assertEquals("2", processor.transform("$.value", "{\"value\":2}"));
+        assertEquals("1", processor.transform("$.value", new String("{\"value\":1}")));
+    }
+
+    @Test
+    public void testInvalidPathThrowsExceptionAgain() {
+        assertThrows(TransformationException.class, () -> processor.transform("$$", jsonArray));
+        assertThrows(TransformationException.class, () -> processor.transform("$$", jsonArray));
+    }
+
+    @Test
+    public void testInvalidJsonAfterValidJson() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertThrows(TransformationException.class, () -> processor.transform("$[0].name", "[{"));
+    }
 }
@@ -12,6 +12,8 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,6 +32,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
  *
+ * <p>
+ * Compiled expressions are cached, so that an expression is compiled only once no matter how often it is applied.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
@@ -40,6 +45,26 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    /** maximum number of cached expressions, the cache is cleared when it grows beyond */
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+    private final Map<String, CompiledExpression> expressionCache = new ConcurrentHashMap<>();
+
+    /**
+     * A compiled transformation expression, either in substitution or in match form
+     */
+    private static class CompiledExpression {
+        private final Pattern pattern;
+        private final @Nullable String substitution;
+        private final boolean global;
+
+        private CompiledExpression(Pattern pattern, @Nullable String substitution, boolean global) {
+            this.pattern = pattern;
+            this.substitution = substitution;
+            this.global = global;
+        }
+    }
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -50,23 +75,19 @@ public class RegExTransformationService implements TransformationService {
 
         String result = "";
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        CompiledExpression expression = getCompiledExpression(regExpression);
+        String substitution = expression.substitution;
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+            Matcher substMatcher = expression.pattern.matcher(source.trim());
+            if (expression.global) {
+                return substMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
+                return substMatcher.replaceFirst(substitution);
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = expression.pattern.matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -94,4 +115,27 @@ public class RegExTransformationService implements TransformationService {
 
         return result;
     }
+
+    private CompiledExpression getCompiledExpression(String regExpression) {
+        CompiledExpression expression = expressionCache.get(regExpression);
+        if (expression == null) {
+            expression = compile(regExpression);
+            if (expressionCache.size() >= MAX_CACHED_EXPRESSIONS) {
+                expressionCache.clear();
+            }
+            expressionCache.put(regExpression, expression);
+        }
+        return expression;
+    }
+
+    private CompiledExpression compile(String regExpression) {
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            String regex = substMatcher.group(1);
+            String substitution = substMatcher.group(2);
+            String options = substMatcher.group(3);
+            return new CompiledExpression(Pattern.compile(regex), substitution, options.equals("g"));
+        }
+        return new CompiledExpression(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null, false);
+    }
 }
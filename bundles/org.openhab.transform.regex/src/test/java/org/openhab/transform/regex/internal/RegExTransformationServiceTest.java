@@ -75,4 +75,21 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_cachedExpressionIsReused() throws TransformationException {
+        String regex = "s/([A-Z]+)([0-9]+),*/var$1=$2 /g";
+
+        assertEquals("varX=12 varY=54 ", processor.transform(regex, "X12,Y54"));
+        assertEquals("varA=1 ", processor.transform(regex, "A1"));
+        assertEquals("42", processor.transform("ARG:(.*)", "ARG:42"));
+        assertEquals("43", processor.transform("ARG:(.*)", "ARG:43"));
+    }
+
+    @Test
+    public void testTransformByRegex_manyExpressions() throws TransformationException {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.valueOf(i), processor.transform("ID" + i + ":(.*)", "ID" + i + ":" + i));
+        }
+    }
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Sorted index over the ranges of a scale file.
+ *
+ * The bounds of all ranges split the number line into elementary intervals: the bounds themselves and the open
+ * intervals between them. All values of an elementary interval are contained in the same ranges, so the first
+ * matching range in file order is resolved for every interval when the index is built. A lookup then is a binary
+ * search over the bounds.
+ *
+ * @author agent - Initial contribution
+ */
+public class RangeIndex {
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    /** distinct bounds of all ranges in ascending order */
+    private final BigDecimal[] bounds;
+
+    /**
+     * value of the first matching range for each elementary interval, null if no range matches. Index 2i is the
+     * open interval below bounds[i], index 2i+1 is bounds[i] itself and the last index the interval above all bounds.
+     */
+    private final String[] values;
+
+    /**
+     * @param ranges the ranges and their values in file order
+     */
+    public RangeIndex(final Map<Range, String> ranges) {
+        final SortedSet<BigDecimal> sortedBounds = new TreeSet<>();
+        for (final Range range : ranges.keySet()) {
+            if (range.min != null) {
+                sortedBounds.add(range.min);
+            }
+            if (range.max != null) {
+                sortedBounds.add(range.max);
+            }
+        }
+        bounds = sortedBounds.toArray(new BigDecimal[0]);
+        values = new String[2 * bounds.length + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = findFirst(ranges, representative(i));
+        }
+    }
+
+    /**
+     * @return the value of the first range containing the given value, null if no range contains it
+     */
+    public String get(final BigDecimal value) {
+        final int index = Arrays.binarySearch(bounds, value);
+        return values[index >= 0 ? 2 * index + 1 : -2 * (index + 1)];
+    }
+
+    private BigDecimal representative(final int interval) {
+        if (bounds.length == 0) {
+            return BigDecimal.ZERO;
+        }
+        final int index = interval / 2;
+        if (interval % 2 == 1) {
+            return bounds[index];
+        } else if (index == 0) {
+            return bounds[0].subtract(BigDecimal.ONE);
+        } else if (index == bounds.length) {
+            return bounds[index - 1].add(BigDecimal.ONE);
+        } else {
+            return bounds[index - 1].add(bounds[index]).divide(TWO);
+        }
+    }
+
+    private static String findFirst(final Map<Range, String> ranges, final BigDecimal value) {
+        for (final Map.Entry<Range, String> entry : ranges.entrySet()) {
+            if (entry.getKey().contains(value)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
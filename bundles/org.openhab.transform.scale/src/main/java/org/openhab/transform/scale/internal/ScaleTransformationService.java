@@ -15,11 +15,13 @@ package org.openhab.transform.scale.internal;
 import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -42,7 +44,7 @@ import org.slf4j.LoggerFactory;
  * @author Markus Rathgeb - drop usage of Guava
  */
 @Component(service = TransformationService.class, property = { "openhab.transform=SCALE" })
-public class ScaleTransformationService extends AbstractFileTransformationService<Map<Range, String>> {
+public class ScaleTransformationService extends AbstractFileTransformationService<ScaleTransformationService.Scale> {
 
     private final Logger logger = LoggerFactory.getLogger(ScaleTransformationService.class);
 
@@ -54,8 +56,66 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
     private static final String FORMAT_VALUE = "%value%";
     private static final String FORMAT_LABEL = "%label%";
 
-    /** Inaccessible range used to store presentation format ]0..0[ */
-    private static final Range FORMAT_RANGE = Range.range(BigDecimal.ZERO, false, BigDecimal.ZERO, false);
+    /**
+     * A loaded scale file: the index of its ranges, the optional value for non numeric inputs and the output format.
+     */
+    static class Scale {
+        private final RangeIndex ranges;
+        private final String nonNumeric;
+        private final Format format;
+
+        Scale(RangeIndex ranges, String nonNumeric, Format format) {
+            this.ranges = ranges;
+            this.nonNumeric = nonNumeric;
+            this.format = format;
+        }
+    }
+
+    /**
+     * Output format that is split into its literal parts and placeholders when the scale file is loaded.
+     */
+    static class Format {
+        private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile(
+                Pattern.quote(FORMAT_VALUE) + "|" + Pattern.quote(FORMAT_LABEL));
+
+        /** literal parts and the placeholders {@link #FORMAT_VALUE} and {@link #FORMAT_LABEL} in order */
+        private final List<String> parts = new ArrayList<>();
+        private final boolean labelOnly;
+
+        Format(String format) {
+            Matcher matcher = PLACEHOLDER_PATTERN.matcher(format);
+            int start = 0;
+            while (matcher.find()) {
+                if (matcher.start() > start) {
+                    parts.add(format.substring(start, matcher.start()));
+                }
+                // the placeholder constants are added themselves, so they can be told apart by identity
+                parts.add(FORMAT_VALUE.equals(matcher.group()) ? FORMAT_VALUE : FORMAT_LABEL);
+                start = matcher.end();
+            }
+            if (start < format.length()) {
+                parts.add(format.substring(start));
+            }
+            labelOnly = parts.size() == 1 && parts.get(0) == FORMAT_LABEL;
+        }
+
+        String format(String value, String label) {
+            if (labelOnly) {
+                return label;
+            }
+            StringBuilder result = new StringBuilder();
+            for (String part : parts) {
+                if (part == FORMAT_VALUE) {
+                    result.append(value);
+                } else if (part == FORMAT_LABEL) {
+                    result.append(label);
+                } else {
+                    result.append(part);
+                }
+            }
+            return result.toString();
+        }
+    }
 
     /**
      * The implementation of {@link OrderedProperties} that let access
@@ -98,7 +158,7 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
      *
      */
     @Override
-    protected String internalTransform(Map<Range, String> data, String source) throws TransformationException {
+    protected String internalTransform(Scale data, String source) throws TransformationException {
         try {
             final BigDecimal value = new BigDecimal(source);
 
@@ -109,7 +169,7 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                 final QuantityType<?> quantity = new QuantityType<>(source);
                 return formatResult(data, source, quantity.toBigDecimal());
             } catch (NumberFormatException e2) {
-                String nonNumeric = data.get(null);
+                String nonNumeric = data.nonNumeric;
                 if (nonNumeric != null) {
                     return nonNumeric;
                 } else {
@@ -120,25 +180,20 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
         }
     }
 
-    private String formatResult(Map<Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        String format = data.get(FORMAT_RANGE);
-        String result = getScaleResult(data, source, value);
-        return format.replaceAll(FORMAT_VALUE, source).replaceAll(FORMAT_LABEL, result);
-    }
-
-    private String getScaleResult(Map<Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        return data.entrySet().stream().filter(entry -> entry.getKey() != null && entry.getKey().contains(value))
-                .findFirst().map(Map.Entry::getValue)
-                .orElseThrow(() -> new TransformationException("No matching range for '" + source + "'"));
+    private String formatResult(Scale data, String source, final BigDecimal value) throws TransformationException {
+        String result = data.ranges.get(value);
+        if (result == null) {
+            throw new TransformationException("No matching range for '" + source + "'");
+        }
+        return data.format.format(source, result);
     }
 
     @Override
-    protected Map<Range, String> internalLoadTransform(String filename) throws TransformationException {
+    protected Scale internalLoadTransform(String filename) throws TransformationException {
         try (FileReader reader = new FileReader(filename)) {
             final Map<Range, String> data = new LinkedHashMap<>();
-            data.put(FORMAT_RANGE, FORMAT_LABEL);
+            String nonNumeric = null;
+            String format = FORMAT_LABEL;
             final OrderedProperties properties = new OrderedProperties();
             properties.load(reader);
 
@@ -164,9 +219,9 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                     }
                 } else {
                     if (NON_NUMBER.equals(entry)) {
-                        data.put(null, value);
+                        nonNumeric = value;
                     } else if (FORMAT.equals(entry)) {
-                        data.put(FORMAT_RANGE, value);
+                        format = value;
                     } else {
                         logger.warn("Scale transform file '{}' does not comply with syntax for entry : '{}', '{}'",
                                 filename, entry, value);
@@ -174,7 +229,7 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                 }
             }
 
-            return data;
+            return new Scale(new RangeIndex(data), nonNumeric, new Format(format));
         } catch (final IOException ex) {
             throw new TransformationException("An error occurred while opening file.", ex);
         }
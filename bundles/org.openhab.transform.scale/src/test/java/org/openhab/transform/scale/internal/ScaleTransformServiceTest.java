@@ -153,4 +153,21 @@ public class ScaleTransformServiceTest {
         String transformedResponse = processor.transform(existingscale, source);
         assertEquals("", transformedResponse);
     }
+
+    @Test
+    public void testRangeBounds() throws TransformationException {
+        String existingscale = "scale/limits.scale";
+        assertEquals("low", processor.transform(existingscale, "9.99"));
+        assertEquals("middle", processor.transform(existingscale, "10"));
+        assertEquals("middle", processor.transform(existingscale, "19.5"));
+        assertEquals("high", processor.transform(existingscale, "20.0"));
+        assertEquals("extreme", processor.transform(existingscale, "300"));
+
+        // overlapping ranges still resolve to the first matching one of the file
+        String evaluationOrder = "scale/evaluationorder.scale";
+        assertEquals("first", processor.transform(evaluationOrder, "10"));
+        assertEquals("second", processor.transform(evaluationOrder, "15"));
+        assertEquals("second", processor.transform(evaluationOrder, "16.9"));
+        assertEquals("last", processor.transform(evaluationOrder, "17"));
+    }
 }
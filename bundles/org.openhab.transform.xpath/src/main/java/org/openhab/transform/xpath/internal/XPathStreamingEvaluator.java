@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple absolute XPath expressions like <code>/a/b/c</code> or <code>/a/b/@attr</code> on a stream of
+ * XML events, without building a DOM.
+ *
+ * The result is the same as evaluating the expression as string: the string value of the first matching element
+ * or attribute in document order, or an empty string if nothing matches. The document is always parsed to its end,
+ * so malformed documents are rejected even if the match comes before the error.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class XPathStreamingEvaluator {
+
+    private static final String NAME = "[A-Za-z_][A-Za-z0-9_.\\-]*";
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(/" + NAME + ")+(/@" + NAME + ")?");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final String[] steps;
+    private final @Nullable String attribute;
+
+    private XPathStreamingEvaluator(String[] steps, @Nullable String attribute) {
+        this.steps = steps;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the evaluator for the given expression, or null if the expression is not a simple absolute path
+     */
+    public static @Nullable XPathStreamingEvaluator forExpression(String xpathExpression) {
+        String expression = xpathExpression.trim();
+        if (!SIMPLE_PATH.matcher(expression).matches()) {
+            return null;
+        }
+        String attribute = null;
+        int attributeStart = expression.indexOf("/@");
+        if (attributeStart >= 0) {
+            attribute = expression.substring(attributeStart + 2);
+            expression = expression.substring(0, attributeStart);
+        }
+        return new XPathStreamingEvaluator(expression.substring(1).split("/"), attribute);
+    }
+
+    public String evaluate(String source) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(source));
+        try {
+            int depth = 0;
+            // number of path steps matched by the current element and its ancestors
+            int matched = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (matched == depth - 1 && depth <= steps.length && isUnqualified(reader.getNamespaceURI())
+                            && steps[depth - 1].equals(reader.getLocalName())) {
+                        matched = depth;
+                        if (matched == steps.length) {
+                            String result = readMatch(reader);
+                            if (result != null) {
+                                drain(reader);
+                                return result;
+                            }
+                            // element content has been consumed up to the end element
+                            matched--;
+                            depth--;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (matched == depth) {
+                        matched--;
+                    }
+                    depth--;
+                }
+            }
+            return "";
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the value of the matching element.
+     *
+     * @return the value, or null if the element doesn't have the requested attribute
+     */
+    private @Nullable String readMatch(XMLStreamReader reader) throws XMLStreamException {
+        String attributeName = attribute;
+        if (attributeName != null) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (isUnqualified(reader.getAttributeNamespace(i))
+                        && attributeName.equals(reader.getAttributeLocalName(i))) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            skipElement(reader);
+            return null;
+        }
+        return readText(reader);
+    }
+
+    /**
+     * Concatenates all text within the current element, which is the string value of the element.
+     */
+    private String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    level++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    level--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads the remaining events, which checks the rest of the document for well-formedness.
+     */
+    private void drain(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            reader.next();
+        }
+    }
+
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
+    private static boolean isUnqualified(@Nullable String namespaceURI) {
+        return namespaceURI == null || namespaceURI.isEmpty();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+}
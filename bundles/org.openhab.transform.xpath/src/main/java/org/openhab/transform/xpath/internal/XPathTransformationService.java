@@ -13,12 +13,19 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,14 +42,43 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Simple absolute paths like <code>/a/b/c</code> or <code>/a/b/@attr</code> are evaluated while streaming through
+ * the document with {@link XPathStreamingEvaluator}, all other expressions on a DOM. Document builders and compiled
+ * expressions are not thread safe and are therefore kept per thread.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    /** maximum number of compiled expressions kept per thread, the cache is cleared when it grows beyond */
+    private static final int MAX_CACHED_EXPRESSIONS = 64;
+    /** maximum number of expressions for which the streaming evaluator is remembered */
+    private static final int MAX_CACHED_EVALUATORS = 256;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        try {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            domFactory.setNamespaceAware(true);
+            domFactory.setValidating(false);
+            return domFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Cannot create document builder", e);
+        }
+    });
+
+    private final ThreadLocal<XPath> xpath = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    // only JDK classes are stored per thread, so pooled threads don't keep the bundle's classes alive
+    private final ThreadLocal<Map<String, XPathExpression>> expressions = ThreadLocal.withInitial(HashMap::new);
+
+    /** streaming evaluators by expression, empty if the expression needs a DOM */
+    private final Map<String, Optional<XPathStreamingEvaluator>> evaluators = new ConcurrentHashMap<>();
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,22 +87,35 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
+        XPathStreamingEvaluator evaluator = getStreamingEvaluator(xpathExpression);
+        if (evaluator != null) {
+            try {
+                String transformationResult = evaluator.evaluate(source);
+                logger.debug("transformation resulted in '{}'", transformationResult);
+                return transformationResult;
+            } catch (XMLStreamException e) {
+                // let the DOM based evaluation decide whether the document is valid
+                logger.debug("streaming evaluation of '{}' failed, using DOM: {}", xpathExpression, e.getMessage());
+            }
+        }
+
         StringReader stringReader = null;
 
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            DocumentBuilder builder = documentBuilder.get();
 
             stringReader = new StringReader(source);
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
+            Document doc;
+            try {
+                doc = builder.parse(inputSource);
+            } finally {
+                builder.reset();
+            }
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            XPathExpression expr = getExpression(xpathExpression);
 
             String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
 
@@ -81,4 +130,29 @@ public class XPathTransformationService implements TransformationService {
             }
         }
     }
+
+    private @Nullable XPathStreamingEvaluator getStreamingEvaluator(String xpathExpression) {
+        Optional<XPathStreamingEvaluator> evaluator = evaluators.get(xpathExpression);
+        if (evaluator == null) {
+            evaluator = Optional.ofNullable(XPathStreamingEvaluator.forExpression(xpathExpression));
+            if (evaluators.size() >= MAX_CACHED_EVALUATORS) {
+                evaluators.clear();
+            }
+            evaluators.put(xpathExpression, evaluator);
+        }
+        return evaluator.orElse(null);
+    }
+
+    private XPathExpression getExpression(String xpathExpression) throws XPathExpressionException {
+        Map<String, XPathExpression> cache = expressions.get();
+        XPathExpression expr = cache.get(xpathExpression);
+        if (expr == null) {
+            expr = xpath.get().compile(xpathExpression);
+            if (cache.size() >= MAX_CACHED_EXPRESSIONS) {
+                cache.clear();
+            }
+            cache.put(xpathExpression, expr);
+        }
+        return expr;
+    }
 }
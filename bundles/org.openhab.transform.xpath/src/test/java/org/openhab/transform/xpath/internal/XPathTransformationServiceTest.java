@@ -38,4 +38,52 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformBySimpleAbsolutePathToAttribute() throws TransformationException {
+        String transformedResponse = processor
+                .transform("/xml_api_reply/weather/current_conditions/temp_c/@data", source);
+
+        assertEquals("8", transformedResponse);
+    }
+
+    @Test
+    public void testTransformBySimpleAbsolutePathToElement() throws TransformationException {
+        String xml = "<root><a>skip</a><b><c>first<d> nested</d></c></b><b><c>second</c></b></root>";
+
+        assertEquals("first nested", processor.transform("/root/b/c", xml));
+        assertEquals("", processor.transform("/root/b/missing", xml));
+    }
+
+    @Test
+    public void testTransformBySimpleAbsolutePathSkipsElementsWithoutAttribute() throws TransformationException {
+        String xml = "<root><item/><item id=\"2\"/><item id=\"3\"/></root>";
+
+        assertEquals("2", processor.transform("/root/item/@id", xml));
+    }
+
+    @Test
+    public void testTransformBySimpleAbsolutePathIgnoresNamespacedElements() throws TransformationException {
+        String xml = "<root xmlns=\"urn:test\"><value>1</value></root>";
+
+        assertEquals("", processor.transform("/root/value", xml));
+    }
+
+    @Test
+    public void testTransformBySimpleAbsolutePathWithInvalidXml() {
+        assertThrows(TransformationException.class, () -> processor.transform("/root/value", "<root><value>"));
+    }
+
+    @Test
+    public void testTransformBySimpleAbsolutePathWithInvalidXmlAfterMatch() {
+        assertThrows(TransformationException.class,
+                () -> processor.transform("/root/value", "<root><value>1</value><broken></root>"));
+    }
+
+    @Test
+    public void testTransformByCachedXPath() throws TransformationException {
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+        assertEquals("46", processor.transform("//current_conditions/temp_f/@data", source));
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
 }
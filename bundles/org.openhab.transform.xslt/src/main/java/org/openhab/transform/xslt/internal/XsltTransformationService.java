@@ -15,9 +15,14 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -35,14 +40,24 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * <p>
+ * Each stylesheet is compiled once into {@link Templates}, which are cached until the
+ * {@link TransformationStylesheetWatcher} reports a change of the file.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(property = { "openhab.transform=XSLT" })
+@Component(service = { TransformationService.class,
+        XsltTransformationService.class }, property = { "openhab.transform=XSLT" })
 public class XsltTransformationService implements TransformationService {
 
+    public static final String TRANSFORM_FOLDER = OpenHAB.getConfigFolder() + File.separator
+            + TransformationService.TRANSFORM_FOLDER_NAME;
+
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final Map<String, Templates> templatesCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,12 +75,9 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
-
+        String path;
         try {
-            String path = OpenHAB.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
-                    + File.separator + filename;
-            xsl = new StreamSource(new File(path));
+            path = getCacheKey(new File(TRANSFORM_FOLDER + File.separator + filename).toPath());
         } catch (Exception e) {
             String message = "opening file '" + filename + "' throws exception";
 
@@ -73,7 +85,7 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException(message, e);
         }
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, path);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
@@ -81,7 +93,8 @@ public class XsltTransformationService implements TransformationService {
         Transformer transformer;
 
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
+            // Templates are thread safe, transformers are not and are created per call
+            transformer = getTemplates(path).newTransformer();
             transformer.transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
@@ -92,4 +105,37 @@ public class XsltTransformationService implements TransformationService {
 
         return out.toString();
     }
+
+    private Templates getTemplates(String path) throws TransformerConfigurationException {
+        Templates templates = templatesCache.get(path);
+        if (templates == null) {
+            logger.debug("Compiling stylesheet {}", path);
+            Source xsl = new StreamSource(new File(path));
+            templates = TransformerFactory.newInstance().newTemplates(xsl);
+            templatesCache.put(path, templates);
+        }
+        return templates;
+    }
+
+    /**
+     * Removes the compiled stylesheet of the given file from the cache
+     *
+     * @param path path of the changed file
+     */
+    public void removeFromCache(Path path) {
+        if (templatesCache.remove(getCacheKey(path)) != null) {
+            logger.debug("Removed stylesheet {} from cache", path);
+        }
+    }
+
+    /**
+     * Removes all compiled stylesheets from the cache
+     */
+    public void clearCache() {
+        templatesCache.clear();
+    }
+
+    private static String getCacheKey(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
 }
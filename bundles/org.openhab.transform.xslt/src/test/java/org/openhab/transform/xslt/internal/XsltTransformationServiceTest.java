@@ -14,6 +14,8 @@ package org.openhab.transform.xslt.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.transform.TransformationException;
@@ -38,4 +40,20 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByCachedXSLT() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+
+        processor.removeFromCache(
+                new File(XsltTransformationService.TRANSFORM_FOLDER + "/http/google_weather.xsl").toPath());
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+    }
+
+    @Test
+    public void testTransformByMissingXSLT() {
+        assertThrows(TransformationException.class, () -> processor.transform("http/missing.xsl", source));
+        assertThrows(TransformationException.class, () -> processor.transform("http/missing.xsl", source));
+    }
 }